@@ -0,0 +1,100 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs BehaviorAutomated.behave once per step on an object which only records its velocity,
+ * with the moves of a moving block of 03-hard.
+ *
+ * keepsVelocity tells if the object is kinematic (see ObjectMovable.keepsVelocity),
+ * in which case the velocity is only set at the beginning of each segment of the path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BehaviorAutomatedBenchmark {
+
+  private static class RecordingMovable implements ObjectMovable {
+    private final boolean keepsVelocity;
+
+    private Vector2 position = new Vector2(), velocity = new Vector2();
+
+    RecordingMovable(boolean keepsVelocity) {
+      this.keepsVelocity = keepsVelocity;
+    }
+
+    @Override
+    public void move(float x, float y) {
+      this.velocity.set(x, y);
+    }
+
+    @Override
+    public void changeDirection(Direction direction) {
+    }
+
+    @Override
+    public void stop() {
+      this.velocity.setZero();
+    }
+
+    @Override
+    public Vector2 getPhysicsPosition() {
+      return this.position;
+    }
+
+    @Override
+    public Vector2 getPhysicsVelocity() {
+      return this.velocity;
+    }
+
+    @Override
+    public boolean keepsVelocity() {
+      return this.keepsVelocity;
+    }
+  }
+
+  @Param({ "true", "false" })
+  public boolean keepsVelocity;
+
+  private BehaviorAutomated behavior;
+  private RecordingMovable movable;
+
+  @Setup
+  public void setUp() {
+    this.behavior = new BehaviorAutomated();
+
+    this.behavior.moves.add(new Vector2(128, 128));
+    this.behavior.moves.add(new Vector2(128, 0));
+    this.behavior.moves.add(new Vector2(-128, 0));
+    this.behavior.moves.add(new Vector2(-128, -128));
+    this.behavior.prepare();
+
+    this.movable = new RecordingMovable(this.keepsVelocity);
+  }
+
+  /**
+   * @return the velocity of the object, so that the call can't be optimized away
+   */
+  @Benchmark
+  public Vector2 behave() {
+    this.behavior.behave(this.movable);
+
+    return this.movable.velocity;
+  }
+}
@@ -0,0 +1,46 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.mbresson.betaform.headless.HeadlessSimulation;
+
+/**
+ * Prepares libGDX for the benchmarks, without any window or GPU (see the headless launcher).
+ *
+ * The benchmarks are in the package of the game since they use what it doesn't make public.
+ * They must be run forked, which is the default: a game can only be loaded once per JVM,
+ * since the resources of its objects are only preloaded once.
+ */
+class BenchmarkEnvironment {
+
+  private static boolean initialized = false;
+
+  /**
+   * Sets Gdx.files, Gdx.graphics... and loads the natives of libGDX.
+   */
+  public static synchronized void initialize() {
+    if(initialized) {
+      return;
+    }
+
+    HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+
+    // the application loop has nothing to do, the benchmarks call the game themselves
+    config.renderInterval = 1f;
+
+    new HeadlessApplication(new ApplicationAdapter() {}, config);
+
+    initialized = true;
+  }
+
+  /**
+   * Loads a level in a game which doesn't draw anything.
+   * Must be called from the thread which runs the benchmark.
+   */
+  public static GameScreen createGame(String levelName) {
+    initialize();
+
+    return HeadlessSimulation.createGame(levelName);
+  }
+}
@@ -0,0 +1,94 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Array;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shoots as many bullets as the ProjectileStore holds, runs the bookkeeping of a step on them
+ * and destroys them all, as the contacts would, without stepping the world.
+ *
+ * The bullets are found through their bodies, so this needs the BODIES engine (see Configuration.Bullets.ENGINE).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BulletChurnBenchmark {
+
+  private static final int STRENGTH = 10;
+
+  private GameScreen game;
+  private BulletManager bulletManager;
+
+  private Array<BulletManager.Bullet> bullets = new Array<>();
+  private Vector2 position = new Vector2();
+
+  @Setup
+  public void setUp() {
+    this.game = BenchmarkEnvironment.createGame("03-hard");
+    this.bulletManager = this.game.getBulletManager();
+
+    Array<Body> bodies = new Array<>();
+    this.game.getWorld().getBodies(bodies);
+
+    for(Body body: bodies) {
+      if(body.getUserData() instanceof BulletManager.Bullet) {
+        this.bullets.add((BulletManager.Bullet) body.getUserData());
+      }
+    }
+
+    if(this.bullets.size == 0) {
+      throw new IllegalStateException("The bullets have no body, see Configuration.Bullets.ENGINE");
+    }
+
+    this.position.set(this.game.getPlayer().getPhysicsPosition());
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.game.dispose();
+  }
+
+  /**
+   * @return the number of bullets left, 0 unless the store has grown
+   */
+  @Benchmark
+  public int churn() {
+    for(int i = 0; i < this.bullets.size; i++) {
+      this.bulletManager.newBullet(
+        BulletManager.BulletType.PLAYER_BULLET,
+        this.position,
+        i % 2 == 0 ? Direction.LEFT : Direction.RIGHT,
+        STRENGTH
+      );
+    }
+
+    this.bulletManager.savePhysicsState();
+    this.bulletManager.moveBullets(Configuration.Physics.FRAMERATE_STEP);
+    this.bulletManager.update(Configuration.Physics.FRAMERATE_STEP);
+
+    for(int i = 0; i < this.bullets.size; i++) {
+      this.bulletManager.destroyBullet(this.bullets.get(i));
+    }
+
+    this.game.getDestructionQueue().drain();
+
+    return this.bulletManager.getBulletCount();
+  }
+}
@@ -0,0 +1,79 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.utils.Array;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives the contacts of a level to ContactHandler.beginContact, as Box2D does during a step.
+ *
+ * The contacts are taken from the world once the level has run for a while, and the world isn't stepped anymore.
+ * They are given to another handler than the one of the game, and its events are processed without
+ * a game (see ContactHandler.processEvents), so that only the dispatch is measured and the game never changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ContactDispatchBenchmark {
+
+  // the bodies fall onto the ground and the enemies start moving
+  private static final int WARM_UP_STEPS = 90;
+
+  @Param({ "03-hard" })
+  public String levelName;
+
+  private GameScreen game;
+
+  private ContactHandler handler = new ContactHandler();
+  private Array<Contact> contacts = new Array<>();
+
+  @Setup
+  public void setUp() {
+    this.game = BenchmarkEnvironment.createGame(this.levelName);
+
+    for(int i = 0; i < WARM_UP_STEPS; i++) {
+      this.game.getLevel().getNavPlanner().beginFrame();
+      this.game.step();
+    }
+
+    this.contacts.addAll(this.game.getWorld().getContactList());
+
+    Betaform.setGameRef(null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    Betaform.setGameRef(this.game);
+    this.game.dispose();
+  }
+
+  /**
+   * @return the number of contacts the handler kept, see ContactHandler.getLastStepEvents
+   */
+  @Benchmark
+  public int beginContact() {
+    for(int i = 0; i < this.contacts.size; i++) {
+      this.handler.beginContact(this.contacts.get(i));
+    }
+
+    this.handler.processEvents();
+
+    return this.handler.getLastStepEvents();
+  }
+}
@@ -0,0 +1,61 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes the bundled levels, as the game and the editor do.
+ *
+ * The levels are written to a temporary file (see Level.writeTo) so that the bundled ones are never changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class LevelSerializationBenchmark {
+
+  @Param({ "01-tutorial", "02-test", "03-hard" })
+  public String levelName;
+
+  private Level level;
+  private FileHandle output;
+
+  @Setup
+  public void setUp() throws IOException {
+    BenchmarkEnvironment.initialize();
+
+    this.level = Level.read(this.levelName);
+
+    File file = File.createTempFile("betaform-" + this.levelName, ".json");
+    file.deleteOnExit();
+
+    this.output = Gdx.files.absolute(file.getAbsolutePath());
+  }
+
+  @Benchmark
+  public Level read() {
+    return Level.read(this.levelName);
+  }
+
+  @Benchmark
+  public void write() {
+    this.level.writeTo(this.output);
+  }
+}
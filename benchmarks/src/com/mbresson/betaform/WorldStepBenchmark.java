@@ -0,0 +1,64 @@
+package com.mbresson.betaform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs whole physics steps of a level (see GameScreen.step): the world, the contacts, the destructions
+ * and the update of the objects, each step being a frame of its own as in the headless launcher.
+ *
+ * Nobody plays, so the player stays at the entrance while the enemies and the blocks move.
+ * On 03-hard, a tree kills him about every 10 simulated seconds: he is then brought back to the entrance
+ * with his full health, as in the headless launcher, so that the steps never go on with a dead player.
+ * The game isn't reloaded for each iteration instead, since it can only be loaded once (see BenchmarkEnvironment).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class WorldStepBenchmark {
+
+  @Param({ "03-hard" })
+  public String levelName;
+
+  private GameScreen game;
+
+  @Setup
+  public void setUp() {
+    this.game = BenchmarkEnvironment.createGame(this.levelName);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.game.dispose();
+  }
+
+  /**
+   * @return the number of steps run so far
+   */
+  @Benchmark
+  public long step() {
+    this.game.getLevel().getNavPlanner().beginFrame();
+    this.game.step();
+
+    if(this.game.isFinished() && this.game.getPlayer().isDead()) {
+      this.game.respawnPlayer();
+    }
+
+    return this.game.getStepCount();
+  }
+}
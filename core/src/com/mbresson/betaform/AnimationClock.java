@@ -0,0 +1,27 @@
+package com.mbresson.betaform;
+
+/**
+ * The time used by all the animations of the game.
+ *
+ * It is advanced once per physics step, so that the animations stop when the game is paused
+ * and all the animated objects are driven by the same time instead of each one counting its own.
+ */
+class AnimationClock {
+
+  private float time = 0f;
+
+  public void advance(float deltaTime) {
+    this.time += deltaTime;
+  }
+
+  /**
+   * @return the time elapsed since the beginning of the game, in seconds
+   */
+  public float getTime() {
+    return this.time;
+  }
+
+  public void reset() {
+    this.time = 0f;
+  }
+}
@@ -0,0 +1,32 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+
+/**
+ * TextureAtlas.findRegion compares the name of every region until it finds the right one.
+ *
+ * This table looks up the region of each value of an enum once, when the atlas is loaded,
+ * so that drawing a value only costs an array access.
+ */
+class AtlasRegionTable<E extends Enum<E> & Labeled> {
+
+  private final AtlasRegion[] regions;
+
+  public AtlasRegionTable(TextureAtlas atlas, Class<E> type) {
+    E[] values = type.getEnumConstants();
+
+    this.regions = new AtlasRegion[values.length];
+
+    for(E value: values) {
+      this.regions[value.ordinal()] = atlas.findRegion(value.getLabel());
+    }
+  }
+
+  /**
+   * @return the region named after the label of the value, or null if the atlas doesn't have it
+   */
+  public AtlasRegion get(E value) {
+    return this.regions[value.ordinal()];
+  }
+}
@@ -13,5 +13,15 @@ interface Behavior extends Json.Serializable {
 
   public Vector2 getSpeed();
 
+  /*
+   * The number of physics steps between two calls to behave, see UpdateScheduler.
+   */
+  public int getTickInterval();
+
+  /*
+   * Called once the object is postloaded, before the first call to behave.
+   */
+  public void prepare();
+
 }
 
@@ -11,11 +11,12 @@ public class BehaviorAutomated implements Behavior {
   Array<Vector2> moves = new Array<>();
   private Vector2 speed;
 
-  // the current move
-  private int moveIndex = 0;
+  // compiled from the moves once the owner is postloaded, shared by all the behaviors having the same ones
+  private MovementPath path;
 
-  // how much have we moved since the start of the moveIndex-th move?
-  private Vector2 moveAccumulator = new Vector2(0, 0);
+  // the current segment of the path, and the number of steps left in it (0 if it is not started yet)
+  private int segment = 0;
+  private int stepsLeft = 0;
 
   public BehaviorAutomated(Array<Vector2> moves) {
     this.moves = moves;
@@ -27,45 +28,44 @@ public class BehaviorAutomated implements Behavior {
     speed = new Vector2(10, 0);
   }
 
-  public void behave(ObjectMovable movable) {
-    Vector2 currentMove = this.moves.get(this.moveIndex);
-
-    float physicsSpeedX = speed.x / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
-    float physicsSpeedY = speed.y / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
-
-    if(currentMove.x < 0) {
-      physicsSpeedX = -physicsSpeedX;
-    }
-
-    if(currentMove.y < 0) {
-      physicsSpeedY = -physicsSpeedY;
-    }
+  /**
+   * The copy shares the moves and the path, but starts from the beginning of the path.
+   */
+  public BehaviorAutomated(BehaviorAutomated behavior) {
+    this.moves = behavior.moves;
+    this.speed = behavior.speed;
+    this.path = behavior.path;
+  }
 
-    moveAccumulator.x += Math.abs(physicsSpeedX);
-    moveAccumulator.y += Math.abs(physicsSpeedY);
+  @Override
+  public void prepare() {
+    this.path = MovementPath.get(this.speed, this.moves);
+  }
 
-    float moveX = 0, moveY = 0;
+  /**
+   * The velocity is set at the beginning of each segment,
+   * and again at each step only if something else than the behavior can change it.
+   */
+  public void behave(ObjectMovable movable) {
+    MovementPath path = this.path;
 
-    if(moveAccumulator.x < Math.abs(currentMove.x)) {
-      moveX = physicsSpeedX;
+    if(path.getSegmentCount() == 0) {
+      return;
     }
 
-    if(moveAccumulator.y < Math.abs(currentMove.y)) {
-      moveY = physicsSpeedY;
+    if(this.stepsLeft == 0) {
+      this.stepsLeft = path.getDuration(this.segment);
+      movable.move(path.getVelocityX(this.segment), path.getVelocityY(this.segment));
+    } else if(!movable.keepsVelocity()) {
+      movable.move(path.getVelocityX(this.segment), path.getVelocityY(this.segment));
     }
 
-    movable.move(moveX, moveY);
-
-    if(
-      moveAccumulator.x >= Math.abs(currentMove.x) &&
-      moveAccumulator.y >= Math.abs(currentMove.y)
-    ) {
-      moveAccumulator.x = 0;
-      moveAccumulator.y = 0;
+    this.stepsLeft--;
 
-      moveIndex++;
-      if(moveIndex >= this.moves.size) {
-        moveIndex = 0;
+    if(this.stepsLeft == 0) {
+      this.segment++;
+      if(this.segment >= path.getSegmentCount()) {
+        this.segment = 0;
       }
     }
   }
@@ -74,6 +74,12 @@ public class BehaviorAutomated implements Behavior {
     return this.speed;
   }
 
+  // the moves are counted in steps, so the behavior must run at each one
+  @Override
+  public int getTickInterval() {
+    return 1;
+  }
+
   @Override
   public void write(Json json) {
 
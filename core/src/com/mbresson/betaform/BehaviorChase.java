@@ -0,0 +1,124 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+
+/**
+ * Walks towards the player along the paths of the NavPlanner of the level,
+ * jumping onto the steps and falling from the edges on the way.
+ */
+public class BehaviorChase implements Behavior {
+
+  // in pixels per second, only x is used
+  private Vector2 speed = new Vector2(150, 0);
+
+  // the current path (shared with the cache of the planner, so it must not be modified) and the cell it leads to
+  private DefaultGraphPath<NavGraph.Node> path;
+  private NavGraph.Node goal;
+
+  // the path is dropped once the planner reuses it, see NavPlanner.getGeneration
+  private int pathGeneration;
+
+  // the enemy doesn't move when it is closer than this to where it goes, in pixels
+  private static final float ARRIVAL_DISTANCE = 4f;
+
+  public void behave(ObjectMovable movable) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null || gameRef.getLevel().getNavPlanner() == null) {
+      return;
+    }
+
+    NavPlanner planner = gameRef.getLevel().getNavPlanner();
+    NavGraph graph = planner.getGraph();
+
+    float x = movable.getPhysicsPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float y = movable.getPhysicsPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    Vector2 playerPosition = gameRef.getPlayer().getPhysicsPosition();
+    float playerX = playerPosition.x * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float playerY = playerPosition.y * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    NavGraph.Node cell = graph.getStandingCell(x, y);
+    NavGraph.Node goal = graph.getStandingCell(playerX, playerY);
+
+    if(cell == null || goal == null) {
+      return;
+    }
+
+    if(this.path != null && this.pathGeneration != planner.getGeneration()) {
+      this.path = null;
+    }
+
+    int index = this.path == null ? -1 : this.path.nodes.indexOf(cell, true);
+
+    // a new path is needed when the player moved, when the enemy left its path or reached its end before the goal
+    if(goal != this.goal || index == -1 || (index == this.path.getCount() - 1 && cell != this.goal)) {
+      DefaultGraphPath<NavGraph.Node> found = planner.findPath(cell, goal);
+
+      if(found != null) {
+        this.path = found;
+        this.pathGeneration = planner.getGeneration();
+        this.goal = goal;
+        index = 0;
+      }
+    }
+
+    float velocityY = movable.getPhysicsVelocity().y;
+
+    if(this.path == null || index == -1) {
+      movable.move(0, velocityY);
+      movable.stop();
+      return;
+    }
+
+    float targetX = playerX;
+    boolean jump = false;
+
+    if(index < this.path.getCount() - 1) {
+      NavGraph.Node next = this.path.get(index + 1);
+
+      targetX = graph.getCenterX(next);
+      jump = next.getY() > cell.getY();
+    }
+
+    float distance = targetX - x;
+
+    if(jump && Math.abs(velocityY) < 0.01f) {
+      velocityY = Configuration.AI.CHASE_JUMP_SPEED;
+    }
+
+    if(Math.abs(distance) < ARRIVAL_DISTANCE) {
+      movable.move(0, velocityY);
+      movable.stop();
+      return;
+    }
+
+    float velocityX = this.speed.x / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    movable.move(distance < 0 ? -velocityX : velocityX, velocityY);
+  }
+
+  @Override
+  public Vector2 getSpeed() {
+    return this.speed;
+  }
+
+  @Override
+  public int getTickInterval() { return Configuration.AI.CHASE_TICK_INTERVAL; }
+
+  @Override
+  public void prepare() {}
+
+  @Override
+  public void write(Json json) {
+    json.writeValue("speed", this.speed);
+    json.writeValue("class", BehaviorType.CHASE.getLabel());
+  }
+
+  @Override
+  public void read(Json json, JsonValue jsonMap) {
+    json.readFields(this, jsonMap);
+  }
+}
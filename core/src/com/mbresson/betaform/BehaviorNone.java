@@ -14,6 +14,12 @@ public class BehaviorNone implements Behavior {
   @Override
   public Vector2 getSpeed() { return new Vector2(); }
 
+  @Override
+  public void prepare() {}
+
+  @Override
+  public int getTickInterval() { return Configuration.AI.NONE_TICK_INTERVAL; }
+
   @Override
   public void write(Json json) {
     json.writeValue("class", BehaviorType.NONE.getLabel());
@@ -28,6 +28,12 @@ public class BehaviorStatic implements Behavior {
   @Override
   public Vector2 getSpeed() { return new Vector2(); }
 
+  @Override
+  public void prepare() {}
+
+  @Override
+  public int getTickInterval() { return Configuration.AI.STATIC_TICK_INTERVAL; }
+
   @Override
   public void write(Json json) {
     json.writeValue("class", BehaviorType.STATIC.getLabel());
@@ -3,7 +3,8 @@ package com.mbresson.betaform;
 enum BehaviorType {
   NONE("behavior-none"),
   AUTOMATED("behavior-automated"),
-  STATIC("behavior-static");
+  STATIC("behavior-static"),
+  CHASE("behavior-chase");
 
   private String type;
 
@@ -20,6 +21,7 @@ enum BehaviorType {
       case NONE: return BehaviorNone.class;
       case AUTOMATED: return BehaviorAutomated.class;
       case STATIC: return BehaviorStatic.class;
+      case CHASE: return BehaviorChase.class;
     }
 
     throw new IllegalArgumentException("No class for the behavior named " + this.type);
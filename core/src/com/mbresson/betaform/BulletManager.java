@@ -2,16 +2,21 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * This class is responsible for creating, destroying and displaying bullets.
  * It handles various types of bullets: user-created bullets, enemy bullets.
+ *
+ * The bullets are stored in a ProjectileStore, see Bullet.
  */
 public class BulletManager implements ResourceEater {
 
@@ -19,69 +24,324 @@ public class BulletManager implements ResourceEater {
 
   private static final float BULLET_SPEED = 10f;
 
-  public enum BulletType {
-    PLAYER_BULLET("player-bullet"),
-    PLAYER_SUPER_BULLET("player-super-bullet"),
-    ENEMY_BULLET("enemy-bullet");
+  public enum BulletType implements Labeled {
+    PLAYER_BULLET("player-bullet", CollisionCategory.PLAYER_BULLET),
+    PLAYER_SUPER_BULLET("player-super-bullet", CollisionCategory.PLAYER_BULLET),
+    ENEMY_BULLET("enemy-bullet", CollisionCategory.ENEMY_BULLET);
 
     private String type;
+    private CollisionCategory collisionCategory;
 
-    private BulletType(String type) {
+    private BulletType(String type, CollisionCategory collisionCategory) {
       this.type = type;
+      this.collisionCategory = collisionCategory;
     }
 
     public String getLabel() {
       return this.type;
     }
+
+    public CollisionCategory getCollisionCategory() {
+      return this.collisionCategory;
+    }
   }
 
-  public class Bullet implements Traversable {
-    public BulletType type;
-    public Body body;
-    public Direction direction;
-    public int strength = 10;
+  /**
+   * How the bullets move and hit things.
+   */
+  public static enum Engine {
+    // each bullet is a Box2D body with continuous collision detection, the hits come from ContactHandler
+    BODIES,
+
+    // the bullets have no body, they are moved by moveBullets which casts a ray along their path
+    RAYCAST
+  }
+
+  private static final BulletType[] BULLET_TYPES = BulletType.values();
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  /**
+   * The state of the bullets is in the ProjectileStore,
+   * this is only a handle on a slot of the store, created once per slot,
+   * for the objects which are hit by the bullets and the DestructionQueue.
+   */
+  public class Bullet implements Traversable, Destructible {
+    final int slot;
+
+    // null with the RAYCAST engine
+    Body body;
+    Fixture fixture;
+
+    // the category of the fixture, which changes with the type of the bullet shot from this slot
+    CollisionCategory collisionCategory;
+
+    // true once destroyBullet has been called, until the slot is freed
+    boolean destroyRequested = false;
+
+    private Bullet(int slot) {
+      this.slot = slot;
+    }
+
+    public BulletType getType() {
+      return BULLET_TYPES[store.type[this.slot]];
+    }
+
+    public Direction getDirection() {
+      return DIRECTIONS[store.direction[this.slot]];
+    }
+
+    public int getStrength() {
+      return store.strength[this.slot];
+    }
+
+    @Override
+    public boolean destroy() {
+      return releaseBullet(this);
+    }
 
     public void dispose() {
       GameInstance gameRef = Betaform.getGameRef();
 
-      if(gameRef == null) {
+      if(gameRef == null || this.body == null) {
         return;
       }
 
       gameRef.getWorld().destroyBody(this.body);
+      this.body = null;
     }
 
     public void invertDirection() {
-      this.direction = (this.direction == Direction.LEFT ? Direction.RIGHT : Direction.LEFT);
+      Direction direction = (this.getDirection() == Direction.LEFT ? Direction.RIGHT : Direction.LEFT);
 
-      this.body.setLinearVelocity(
-        direction == Direction.LEFT ? -BULLET_SPEED : BULLET_SPEED,
-        0
-      );
+      store.direction[this.slot] = direction.ordinal();
+      store.velocityX[this.slot] = -store.velocityX[this.slot];
+      store.velocityY[this.slot] = -store.velocityY[this.slot];
+
+      if(this.body != null) {
+        this.body.setLinearVelocity(store.velocityX[this.slot], store.velocityY[this.slot]);
+      }
+    }
+  }
+
+  /**
+   * Finds the closest fixture on the path of a bullet, see moveBullets.
+   */
+  private class BulletRayCast implements RayCastCallback {
+    Fixture closestFixture;
+    Vector2 closestPoint = new Vector2();
+
+    // the categories the bullet collides with, see CollisionCategory
+    short mask;
+
+    void reset(BulletType type) {
+      this.closestFixture = null;
+      this.mask = type.getCollisionCategory().getMask();
+    }
+
+    @Override
+    public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
+      Object object = fixture.getBody().getUserData();
+
+      // the sensors are traversable, and don't touch the bullets with the BODIES engine either
+      if(fixture.isSensor() || object == null || object instanceof Traversable) {
+        return -1;
+      }
+
+      // Box2D doesn't filter the rays
+      if((fixture.getFilterData().categoryBits & this.mask) == 0) {
+        return -1;
+      }
+
+      this.closestFixture = fixture;
+      this.closestPoint.set(point);
+
+      // only look for closer fixtures from now on
+      return fraction;
     }
   }
 
   private String getPath() { return "img/sprites/bullets.atlas"; }
 
   private TextureAtlas textureAtlas;
+  private AtlasRegionTable<BulletType> regions;
   private Sprite sprite;
 
-  private Array<Bullet> bullets = new Array<>(10);
-  private Array<Bullet> bulletsToBeDestroyed = new Array<>(10);
+  private final Engine engine = Configuration.Bullets.ENGINE;
+
+  private BulletPool pool = new BulletPool(
+    Configuration.Bullets.POOL_CAPACITY,
+    Configuration.Bullets.POOL_OVERFLOW_POLICY
+  );
+
+  private ProjectileStore store = new ProjectileStore(
+    Configuration.Bullets.POOL_CAPACITY * BULLET_TYPES.length
+  );
+
+  // the handle of each slot of the store
+  private Array<Bullet> handles = new Array<>(this.store.getCapacity());
+
+  private BulletRayCast rayCast = new BulletRayCast();
+  private Filter filter = new Filter();
+  private Vector2 rayStart = new Vector2(), rayEnd = new Vector2();
+
+  // filled at each display, see ProjectileStore.cull
+  private IntArray visibleSlots = new IntArray();
+  private FloatArray visiblePositions = new FloatArray();
+
+  // see GameScreen.doPhysicsStep
+  private float interpolationAlpha = 1f;
 
   public BulletManager() {
   }
 
+  public BulletPool getPool() {
+    return this.pool;
+  }
+
+  public Engine getEngine() {
+    return this.engine;
+  }
+
+  /**
+   * @return the number of bullets flying
+   */
+  public int getBulletCount() {
+    return this.store.size();
+  }
+
+  /**
+   * Creates the handles of the new slots of the store, and their bodies (deactivated until they are shot).
+   * With the RAYCAST engine, the bullets have no body.
+   */
+  private void createHandles() {
+    GameInstance gameRef = Betaform.getGameRef();
+
+    if(gameRef == null) {
+      return;
+    }
+
+    // all the bullets have the same size
+    PolygonShape shape = null;
+    if(this.engine == Engine.BODIES) {
+      shape = new PolygonShape();
+      shape.setAsBox(
+        sprite.getWidth()/2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS,
+        sprite.getHeight()/2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS
+      );
+    }
+
+    for(int slot = this.handles.size; slot < this.store.getCapacity(); slot++) {
+      Bullet bullet = new Bullet(slot);
+      this.handles.add(bullet);
+
+      if(shape == null) {
+        continue;
+      }
+
+      BodyDef bodyDef = new BodyDef();
+      bodyDef.type = BodyDef.BodyType.DynamicBody;
+      bodyDef.active = false;
+      bodyDef.bullet = true;
+      bodyDef.gravityScale = 0;
+
+      bullet.body = gameRef.getWorld().createBody(bodyDef);
+      bullet.body.setUserData(bullet);
+
+      FixtureDef fixtureDef = new FixtureDef();
+      fixtureDef.shape = shape;
+      fixtureDef.density = 0f;
+      fixtureDef.friction = 0f;
+      fixtureDef.isSensor = true;
+
+      // until the slot is used by a bullet of another type, see newBullet
+      bullet.collisionCategory = CollisionCategory.PLAYER_BULLET;
+      bullet.collisionCategory.applyTo(fixtureDef.filter);
+
+      bullet.fixture = bullet.body.createFixture(fixtureDef);
+    }
+
+    if(shape != null) {
+      shape.dispose();
+    }
+  }
+
+  /**
+   * Called by the DestructionQueue.
+   *
+   * @return false if the slot was already free
+   */
+  private boolean releaseBullet(Bullet bullet) {
+    if(!this.store.alive[bullet.slot]) {
+      return false;
+    }
+
+    this.store.free(bullet.slot);
+    bullet.destroyRequested = false;
+
+    // the body stays with its slot
+    if(bullet.body != null) {
+      bullet.body.setActive(false);
+    }
+
+    return true;
+  }
+
+  /**
+   * @return a slot for a new bullet of this type, or -1 if the bullet must not be shot
+   */
+  private int obtainSlot(BulletType type) {
+    int slot = this.store.obtain();
+    this.pool.slotObtained(slot);
+
+    if(slot != -1) {
+      return slot;
+    }
+
+    if(this.pool.getPolicy() == BulletPool.OverflowPolicy.DROP_NEW) {
+      this.pool.bulletDropped();
+      return -1;
+    }
+
+    if(this.pool.getPolicy() == BulletPool.OverflowPolicy.RECYCLE_OLDEST) {
+      slot = this.store.findOldest(type.ordinal());
+
+      if(slot != -1) {
+        GameInstance gameRef = Betaform.getGameRef();
+        if(gameRef != null && gameRef.getDestructionQueue() != null) {
+          gameRef.getDestructionQueue().cancel(this.handles.get(slot));
+        }
+
+        this.handles.get(slot).destroyRequested = false;
+
+        this.store.reuse(slot);
+        this.pool.bulletRecycled();
+        return slot;
+      }
+    }
+
+    // GROW, or no bullet of this type to recycle
+    int capacity = this.store.getCapacity();
+    this.store.grow(capacity * 2);
+    this.pool.storeGrown(capacity);
+    this.createHandles();
+
+    return this.store.obtain();
+  }
+
+  /**
+   * Must not be called during a physics step.
+   */
   public void newBullet(BulletType type, Vector2 physicsPosition, Direction direction, int strength) {
-    sprite.setRegion(textureAtlas.findRegion(type.getLabel()));
+    GameInstance gameRef = Betaform.getGameRef();
 
-    Bullet bullet = new Bullet();
-    bullet.type = type;
-    bullet.strength = strength;
-    bullet.direction = direction;
+    if(gameRef == null) {
+      return;
+    }
 
-    BodyDef bodyDef = new BodyDef();
-    bodyDef.type = BodyDef.BodyType.DynamicBody;
+    int slot = this.obtainSlot(type);
+    if(slot == -1) {
+      return;
+    }
 
     float finalX = physicsPosition.x;
     if(direction == Direction.LEFT) {
@@ -91,91 +351,187 @@ public class BulletManager implements ResourceEater {
     }
     float finalY = physicsPosition.y + sprite.getHeight() / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
 
-    bodyDef.position.set(
-      finalX,
-      finalY
-    );
+    ProjectileStore store = this.store;
+
+    store.type[slot] = type.ordinal();
+    store.direction[slot] = direction.ordinal();
+    store.strength[slot] = strength;
+    store.x[slot] = store.previousX[slot] = finalX;
+    store.y[slot] = store.previousY[slot] = finalY;
+    store.velocityX[slot] = direction == Direction.LEFT ? -BULLET_SPEED : BULLET_SPEED;
+    store.velocityY[slot] = 0;
+
+    Bullet bullet = this.handles.get(slot);
+    Body body = bullet.body;
+    if(body != null) {
+      if(bullet.collisionCategory != type.getCollisionCategory()) {
+        bullet.collisionCategory = type.getCollisionCategory();
+        bullet.collisionCategory.applyTo(this.filter);
+        bullet.fixture.setFilterData(this.filter);
+      }
 
-    GameInstance gameRef = Betaform.getGameRef();
+      body.setTransform(finalX, finalY, 0);
+      body.setActive(true);
+      body.setAwake(true);
 
-    if(gameRef == null) {
-      return;
+      body.setLinearVelocity(store.velocityX[slot], store.velocityY[slot]);
     }
 
-    bullet.body = gameRef.getWorld().createBody(bodyDef);
-    bullet.body.setUserData(bullet);
-    bullet.body.setBullet(true);
-    bullet.body.setGravityScale(0);
+    this.pool.updateHighWaterMark(store.size());
+  }
+
+  /**
+   * Display the existing bullets which are in the visible area (in pixels).
+   */
+  public void display(Batch batch, Rectangle visibleArea) {
+    this.visibleSlots.clear();
+    this.visiblePositions.clear();
 
-    PolygonShape shape = new PolygonShape();
-    shape.setAsBox(
-      sprite.getWidth()/2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS,
-      sprite.getHeight()/2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS
+    int visible = this.store.cull(
+      visibleArea, this.interpolationAlpha, sprite.getWidth(), sprite.getHeight(),
+      this.visibleSlots, this.visiblePositions
     );
 
-    FixtureDef fixtureDef = new FixtureDef();
-    fixtureDef.shape = shape;
-    fixtureDef.density = 0f;
-    fixtureDef.friction = 0f;
-    fixtureDef.isSensor = true;
+    int[] slots = this.visibleSlots.items;
+    float[] positions = this.visiblePositions.items;
 
-    Fixture fixture = bullet.body.createFixture(fixtureDef);
-    shape.dispose();
+    for(int i = 0; i < visible; i++) {
+      int slot = slots[i];
+      float x = positions[i*2];
+      float y = positions[i*2 + 1];
 
-    bullet.body.setLinearVelocity(
-      direction == Direction.LEFT ? -BULLET_SPEED : BULLET_SPEED,
-      0
-    );
+      sprite.setRegion(this.regions.get(BULLET_TYPES[this.store.type[slot]]));
 
-    bullets.add(bullet);
+      if(this.store.direction[slot] == Direction.LEFT.ordinal()) {
+        sprite.flip(true, false);
+        batch.draw(sprite, x, y);
+        sprite.flip(true, false);
+      } else {
+        batch.draw(sprite, x, y);
+      }
+    }
   }
 
   /**
-   * Display all existing bullets.
+   * Must be called before each physics step.
    */
-  public void display(SpriteBatch batch) {
-    for(Bullet bullet: this.bullets) {
-      sprite.setRegion(textureAtlas.findRegion(bullet.type.getLabel()));
+  public void savePhysicsState() {
+    this.store.savePreviousPositions();
+  }
 
-      float x = bullet.body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS - sprite.getWidth() / 2;
-      float y = bullet.body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS - sprite.getHeight() / 2;
+  /**
+   * Must be called right after the physics step, before the DestructionQueue is drained,
+   * so that the hits are handled at the same time as the ones coming from the contacts.
+   *
+   * With the BODIES engine, the positions of the bodies are copied to the store.
+   *
+   * With the RAYCAST engine, moves the bullets and makes them hit the first thing on their way.
+   * Each bullet casts one ray per step from its center to its front edge at the end of the step,
+   * which is enough for the bullets flying horizontally and much cheaper than a body.
+   */
+  public void moveBullets(float deltaTime) {
+    ProjectileStore store = this.store;
+
+    if(this.engine == Engine.BODIES) {
+      for(int slot = 0; slot < store.getCapacity(); slot++) {
+        if(store.alive[slot]) {
+          Vector2 position = this.handles.get(slot).body.getPosition();
+          store.x[slot] = position.x;
+          store.y[slot] = position.y;
+        }
+      }
 
-      if(bullet.direction == Direction.LEFT) {
-        sprite.flip(true, false);
-        batch.draw(sprite, x, y);
-        sprite.flip(true, false);
+      return;
+    }
+
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return;
+    }
+
+    World world = gameRef.getWorld();
+
+    float halfWidth = sprite.getWidth()/2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    // hitBy doesn't free the slots right away, so the store can be iterated over
+    for(int slot = 0; slot < store.getCapacity(); slot++) {
+      if(!store.alive[slot]) {
+        continue;
+      }
+
+      Bullet bullet = this.handles.get(slot);
+
+      if(bullet.destroyRequested) {
+        continue;
+      }
+
+      float dx = store.velocityX[slot] * deltaTime;
+      float dy = store.velocityY[slot] * deltaTime;
+
+      this.rayStart.set(store.x[slot], store.y[slot]);
+      this.rayEnd.set(
+        store.x[slot] + dx + (dx < 0 ? -halfWidth : halfWidth),
+        store.y[slot] + dy
+      );
+
+      // a zero-length ray makes Box2D assert
+      if(this.rayEnd.epsilonEquals(this.rayStart, 0.0001f)) {
+        continue;
+      }
+
+      this.rayCast.reset(BULLET_TYPES[store.type[slot]]);
+      world.rayCast(this.rayCast, this.rayStart, this.rayEnd);
+
+      if(this.rayCast.closestFixture == null) {
+        store.x[slot] += dx;
+        store.y[slot] += dy;
+        continue;
+      }
+
+      Object object = this.rayCast.closestFixture.getBody().getUserData();
+      int direction = store.direction[slot];
+
+      if(object instanceof CanBeHitByBullet) {
+        ((CanBeHitByBullet) object).hitBy(bullet);
       } else {
-        batch.draw(sprite, x, y);
+        this.destroyBullet(bullet);
+      }
+
+      if(bullet.destroyRequested || store.direction[slot] != direction) {
+        // stopped or bounced (see LevelTile.hitBy) where its front edge touched the object
+        store.x[slot] = this.rayCast.closestPoint.x + (dx < 0 ? halfWidth : -halfWidth);
+        store.y[slot] = this.rayCast.closestPoint.y;
+      } else {
+        // the object let the bullet go through (e.g. the player's shield)
+        store.x[slot] += dx;
+        store.y[slot] += dy;
       }
     }
   }
 
+  /**
+   * @param alpha see {@link LevelObject#interpolate(float)}
+   */
+  public void interpolate(float alpha) {
+    this.interpolationAlpha = alpha;
+  }
+
   // deltaTime is a placeholder
   public void update(float deltaTime) {
-    for(Bullet bullet: bulletsToBeDestroyed) {
-      this.bullets.removeValue(bullet, true);
-      bullet.dispose();
-    }
-
-    bulletsToBeDestroyed.clear();
+    // nothing to do, the bullets are destroyed by the DestructionQueue
   }
 
+  /**
+   * The bullet is destroyed after the current physics step, see DestructionQueue.
+   */
   public void destroyBullet(Bullet bullet) {
-    /*
-     * We queue the bullets to be destroyed:
-     * we can't destroy them while the physics engine is in the middle of its computations.
-     */
-
-    /*
-     * Also, make sure a bullet is not set to be destroyed twice:
-     * it can happen if several fixtures of the player are in contact with the bullet at the same time
-     * and call the destroyBullet function at the same time.
-     */
-    if(this.bulletsToBeDestroyed.contains(bullet, true)) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null || gameRef.getDestructionQueue() == null) {
       return;
     }
 
-    bulletsToBeDestroyed.add(bullet);
+    bullet.destroyRequested = true;
+    gameRef.getDestructionQueue().enqueue(bullet);
   }
 
   @Override
@@ -195,7 +551,11 @@ public class BulletManager implements ResourceEater {
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
 
-    this.sprite = new Sprite(this.textureAtlas.findRegion(BulletType.PLAYER_BULLET.getLabel()));
+    this.regions = new AtlasRegionTable<>(this.textureAtlas, BulletType.class);
+
+    this.sprite = new Sprite(this.regions.get(BulletType.PLAYER_BULLET));
+
+    this.createHandles();
   }
 
   @Override
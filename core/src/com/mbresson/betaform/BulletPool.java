@@ -0,0 +1,116 @@
+package com.mbresson.betaform;
+
+/**
+ * Decides what to do when all the slots of the ProjectileStore are in use,
+ * and counts how well the store is sized.
+ *
+ * The bodies of the bullets (with the BODIES engine) belong to the slots,
+ * they are created with the slots and deactivated when a slot is freed.
+ */
+public class BulletPool {
+
+  /**
+   * What happens when a bullet is needed but the store has no free slot left.
+   */
+  public static enum OverflowPolicy {
+    // the store grows, and keeps its new slots
+    GROW,
+
+    // the bullet is not shot
+    DROP_NEW,
+
+    // the oldest bullet of this type still flying is shot again
+    RECYCLE_OLDEST
+  }
+
+  private final int capacity;
+  private final OverflowPolicy policy;
+
+  private long hits = 0, misses = 0;
+  private long dropped = 0, recycled = 0, grown = 0;
+  private int highWaterMark = 0;
+
+  /**
+   * @param capacity the number of bullets of each type the store is created for
+   */
+  public BulletPool(int capacity, OverflowPolicy policy) {
+    this.capacity = capacity;
+    this.policy = policy;
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  public OverflowPolicy getPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * @param slot the slot obtained from the store, -1 if it was full
+   */
+  public void slotObtained(int slot) {
+    if(slot == -1) {
+      this.misses++;
+    } else {
+      this.hits++;
+    }
+  }
+
+  public void bulletDropped() {
+    this.dropped++;
+  }
+
+  public void bulletRecycled() {
+    this.recycled++;
+  }
+
+  /**
+   * @param slots the number of slots added to the store
+   */
+  public void storeGrown(int slots) {
+    this.grown += slots;
+  }
+
+  /**
+   * @param bulletsInUse the number of bullets flying right now
+   */
+  public void updateHighWaterMark(int bulletsInUse) {
+    if(bulletsInUse > this.highWaterMark) {
+      this.highWaterMark = bulletsInUse;
+    }
+  }
+
+  public long getHits() {
+    return this.hits;
+  }
+
+  public long getMisses() {
+    return this.misses;
+  }
+
+  public long getDropped() {
+    return this.dropped;
+  }
+
+  public long getRecycled() {
+    return this.recycled;
+  }
+
+  public long getGrown() {
+    return this.grown;
+  }
+
+  public int getHighWaterMark() {
+    return this.highWaterMark;
+  }
+
+  @Override
+  public String toString() {
+    return
+      "bullet pool (" + this.policy + ", " + this.capacity + " per type): " +
+      this.hits + " hits, " + this.misses + " misses, " +
+      this.dropped + " dropped, " + this.recycled + " recycled, " + this.grown + " slots added, " +
+      "at most " + this.highWaterMark + " bullets in use";
+  }
+}
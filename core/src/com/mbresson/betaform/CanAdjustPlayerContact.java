@@ -0,0 +1,17 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.physics.box2d.*;
+
+/**
+ * For the objects which must change a contact with the player (e.g. its friction)
+ * before Box2D solves it, unlike CanHandlePlayerContact which is called after the physics step.
+ */
+interface CanAdjustPlayerContact {
+
+  /**
+   * Called during the physics step, when the player starts being in contact with the object.
+   * It must only change the contact, not the game.
+   */
+  void adjustPlayerContact(Player player, Contact contact);
+
+}
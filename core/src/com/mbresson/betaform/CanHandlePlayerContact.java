@@ -1,14 +1,15 @@
 package com.mbresson.betaform;
 
-import com.badlogic.gdx.physics.box2d.*;
-
+/**
+ * The contacts are handled after the physics step (see ContactHandler),
+ * see CanAdjustPlayerContact to change the contact itself.
+ */
 interface CanHandlePlayerContact {
 
   // called when the player starts being in contact with the object
-  void handlePlayerContactBegin(Player player, Contact contact);
+  void handlePlayerContactBegin(Player player);
 
   // called at the end of the contact (e.g. the player is moving away)
-  void handlePlayerContactEnd(Player player, Contact contact);
+  void handlePlayerContactEnd(Player player);
 
 }
-
@@ -0,0 +1,77 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.physics.box2d.Filter;
+
+/**
+ * The collision categories of the fixtures, and which categories collide with each other.
+ *
+ * Box2D doesn't even create a contact between two fixtures whose categories don't collide,
+ * so the pairs which can never matter (e.g. a bullet and a hint, an enemy and a bonus)
+ * are discarded in the broadphase, before ContactHandler is called.
+ *
+ * The category of each level object is given by LevelObjectType.getCollisionCategory.
+ */
+enum CollisionCategory {
+  PLAYER,
+  ENEMY,
+  TILE,
+  BOUNDARY,
+  BLOCK,
+  DOOR,
+  PLAYER_BULLET,
+  ENEMY_BULLET,
+  PICKUP,
+  HELPER,
+  PORTAL;
+
+  /*
+   * The pairs of categories which collide, the matrix is symmetric.
+   */
+  private static final CollisionCategory[][] COLLIDING_PAIRS = {
+    { PLAYER, TILE }, { PLAYER, BOUNDARY }, { PLAYER, BLOCK }, { PLAYER, DOOR },
+    { PLAYER, ENEMY }, { PLAYER, PICKUP }, { PLAYER, HELPER }, { PLAYER, PORTAL },
+
+    // the player's own bullets hurt him when a bouncy tile sends them back
+    { PLAYER, PLAYER_BULLET }, { PLAYER, ENEMY_BULLET },
+
+    { ENEMY, TILE }, { ENEMY, BOUNDARY }, { ENEMY, BLOCK }, { ENEMY, DOOR }, { ENEMY, ENEMY },
+    { ENEMY, PLAYER_BULLET }, { ENEMY, ENEMY_BULLET },
+
+    { BLOCK, TILE }, { BLOCK, BOUNDARY }, { BLOCK, BLOCK }, { BLOCK, DOOR },
+
+    { PLAYER_BULLET, TILE }, { PLAYER_BULLET, BOUNDARY }, { PLAYER_BULLET, BLOCK }, { PLAYER_BULLET, DOOR },
+    { ENEMY_BULLET, TILE }, { ENEMY_BULLET, BOUNDARY }, { ENEMY_BULLET, BLOCK }, { ENEMY_BULLET, DOOR }
+  };
+
+  private static final short[] MASKS = new short[values().length];
+
+  static {
+    for(CollisionCategory[] pair: COLLIDING_PAIRS) {
+      MASKS[pair[0].ordinal()] |= pair[1].getBits();
+      MASKS[pair[1].ordinal()] |= pair[0].getBits();
+    }
+  }
+
+  public short getBits() {
+    return (short) (1 << this.ordinal());
+  }
+
+  /**
+   * @return the categories this one collides with
+   */
+  public short getMask() {
+    return MASKS[this.ordinal()];
+  }
+
+  public boolean collidesWith(CollisionCategory category) {
+    return (this.getMask() & category.getBits()) != 0;
+  }
+
+  /**
+   * Must be called on the filter of a FixtureDef before the fixture is created.
+   */
+  public void applyTo(Filter filter) {
+    filter.categoryBits = this.getBits();
+    filter.maskBits = this.getMask();
+  }
+}
@@ -13,6 +13,7 @@ public class Configuration {
     public static final int KEY_ACTION = Keys.CONTROL_LEFT;
     public static final int KEY_SHOOT = Keys.C;
     public static final int KEY_PAUSE = Keys.P;
+    public static final int KEY_PERFORMANCE_HUD = Keys.F3;
 
     // only used in the editor
     public static final int KEY_MOVE_UP = Keys.UP;
@@ -27,6 +28,67 @@ public class Configuration {
     public static final float FRAMERATE_STEP = 1.0f / STEPS_PER_SECOND;
     public static final float GRAVITY = -10f;
 
+    // if true, sprites are drawn between the two last physics steps instead of at the last one
+    public static final boolean INTERPOLATION = true;
+
+    /*
+     * If true, the physics and the objects are updated on a separate thread,
+     * and the GL thread only draws the last state published by it.
+     */
+    public static final boolean SIMULATION_THREAD = false;
+
+    /*
+     * At most MAX_STEPS_PER_FRAME steps are run in one frame,
+     * and no new step is started after MAX_STEP_TIME_PER_FRAME milliseconds.
+     */
+    public static final int MAX_STEPS_PER_FRAME = 4;
+    public static final float MAX_STEP_TIME_PER_FRAME = 12f;
+
+    // the number of contact events buffered during a step before the buffer grows, see ContactHandler
+    public static final int CONTACT_EVENTS_CAPACITY = 256;
+
+  }
+
+  public static class Bullets {
+
+    // the number of bullets of each type the ProjectileStore is created for, see BulletPool
+    public static final int POOL_CAPACITY = 32;
+    public static final BulletPool.OverflowPolicy POOL_OVERFLOW_POLICY = BulletPool.OverflowPolicy.GROW;
+
+    // RAYCAST can handle far more bullets at once, see BulletManager.Engine
+    public static final BulletManager.Engine ENGINE = BulletManager.Engine.BODIES;
+
+  }
+
+  public static class AI {
+
+    /*
+     * The number of physics steps between two ticks of the enemies, see UpdateScheduler.
+     * The behaviors which move an object on a path must tick at each step.
+     */
+    public static final int STATIC_TICK_INTERVAL = 3;
+    public static final int NONE_TICK_INTERVAL = 15;
+    public static final int SHOOTER_TICK_INTERVAL = 3;
+    public static final int CHASE_TICK_INTERVAL = 3;
+
+    // the vertical speed of a chasing enemy jumping onto a step, in world units per second
+    public static final float CHASE_JUMP_SPEED = 14f;
+
+    /*
+     * The navigation graph of the enemies, see NavGraph and NavPlanner:
+     * the clusters are squares of NAV_CLUSTER_SIZE cells, an enemy can jump NAV_MAX_JUMP_HEIGHT cells high,
+     * at most NAV_SEARCHES_PER_FRAME paths are searched per frame and NAV_CACHE_CAPACITY paths are kept.
+     * A cell out of the clusters of the path is estimated NAV_CORRIDOR_PENALTY cells further from the goal.
+     */
+    public static final int NAV_CLUSTER_SIZE = 8;
+    public static final int NAV_MAX_JUMP_HEIGHT = 1;
+    public static final int NAV_CORRIDOR_PENALTY = 32;
+    public static final int NAV_SEARCHES_PER_FRAME = 2;
+    public static final int NAV_CACHE_CAPACITY = 256;
+
+    // measure the time spent in the ticks of each type of object
+    public static final boolean PROFILE_TICKS = true;
+
   }
 
   public static class Video {
@@ -34,6 +96,13 @@ public class Configuration {
     public static final int WINDOW_WIDTH = 1024;
     public static final int WINDOW_HEIGHT = 768;
 
+    /*
+     * The performance HUD shows the timings of the last PERFORMANCE_SAMPLES frames (see FrameProfiler),
+     * and its text is built again every PERFORMANCE_HUD_REFRESH frames.
+     */
+    public static final int PERFORMANCE_SAMPLES = 120;
+    public static final int PERFORMANCE_HUD_REFRESH = 15;
+
   }
 
   public static class Level {
@@ -42,6 +111,19 @@ public class Configuration {
     public static final int TILE_WIDTH = 64;
     public static final int TILE_HEIGHT = 64;
 
+    /*
+     * The objects less than ACTIVITY_MARGIN pixels away from the window are simulated,
+     * the others fall asleep once they are ACTIVITY_HYSTERESIS pixels further.
+     */
+    public static final int ACTIVITY_MARGIN = 512;
+    public static final int ACTIVITY_HYSTERESIS = 128;
+
+    // the tiles are drawn by square chunks of this number of blocks, see LevelTileCache
+    public static final int TILE_CACHE_CHUNK_SIZE = 16;
+
+    // the objects which allow it are updated by the systems of LevelEntities instead of their own update
+    public static final boolean ENTITY_SYSTEMS = false;
+
   }
 }
 
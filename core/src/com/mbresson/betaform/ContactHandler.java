@@ -1,152 +1,442 @@
 package com.mbresson.betaform;
 
 import com.badlogic.gdx.physics.box2d.*;
-import com.badlogic.gdx.math.Vector2;
-
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Dispatches the contacts between two bodies according to their user data.
+ *
+ * The Box2D callbacks only record the contacts in a ring buffer of events,
+ * which is processed after the physics step by processEvents, in the order the contacts happened.
+ * This way, the game is never changed in the middle of a step,
+ * and only CanAdjustPlayerContact objects are called during the step to change the contact itself.
+ *
+ * Each class of user data gets a small type ID the first time it is seen (see registerBodies),
+ * along with its roles (bullet, player, ground...) found with instanceof once and for all.
+ * The handler of each pair of types is then computed once and stored in a table,
+ * so that handling a contact is only two lookups, whatever the number of kinds of objects,
+ * and most pairs (e.g. two blocks) have no handler at all.
+ */
 public class ContactHandler implements ContactListener {
 
-  private void beginContactWithFeet(Player player, Object object) {
-    // the player can only jump if he is standing on the ground or a block
-    if(object instanceof LevelBlock || object instanceof LevelTile) {
-      player.increaseObjectsBelowFeet();
-    } else if(object instanceof LevelBoundaries.BoundaryType) {
-      LevelBoundaries.BoundaryType type = (LevelBoundaries.BoundaryType) object;
-
-      if(object == LevelBoundaries.BoundaryType.GROUND) {
-        /*
-         * Reset the player's position to the level's entrance spot.
-         */
-        player.resetPosition();
-      }
+  private static final int
+    ROLE_BULLET = 1,
+    ROLE_HITTABLE = 1 << 1,
+    ROLE_TRAVERSABLE = 1 << 2,
+    ROLE_PLAYER = 1 << 3,
+    ROLE_GROUND = 1 << 4,
+    ROLE_BOUNDARY = 1 << 5,
+    ROLE_PLAYER_CONTACT = 1 << 6,
+    ROLE_ADJUST_PLAYER_CONTACT = 1 << 7;
+
+  private static final int INITIAL_TYPES = 32;
+
+  /**
+   * Handles the contacts between two types of user data.
+   * The first object is always the one of the first role (e.g. the bullet, the player).
+   *
+   * @param feet true if the fixture of the first object is the player's feet
+   */
+  private static abstract class PairHandler {
+    // called during the physics step
+    void adjust(Object first, Object second, Contact contact) {
+    }
+
+    void begin(GameInstance gameRef, Object first, boolean feet, Object second) {
+    }
+
+    void end(Object first, boolean feet, Object second) {
     }
   }
 
-  @Override
-  public void beginContact(Contact contact) {
-    GameInstance gameRef = Betaform.getGameRef();
+  /**
+   * A bullet against an object which can be hit.
+   */
+  private static final PairHandler BULLET_HIT = new PairHandler() {
+    @Override
+    void begin(GameInstance gameRef, Object first, boolean feet, Object second) {
+      ((CanBeHitByBullet) second).hitBy((BulletManager.Bullet) first);
+    }
+  };
+
+  /**
+   * A bullet against an object which stops it (e.g. the boundaries of the level).
+   */
+  private static final PairHandler BULLET_STOP = new PairHandler() {
+    @Override
+    void begin(GameInstance gameRef, Object first, boolean feet, Object second) {
+      gameRef.getBulletManager().destroyBullet((BulletManager.Bullet) first);
+    }
+  };
+
+  /**
+   * The player against an object he can stand on, or which reacts to him.
+   */
+  private static class PlayerPairHandler extends PairHandler {
+    private final boolean ground, boundary, playerContact, adjustPlayerContact;
+
+    PlayerPairHandler(int roles) {
+      this.ground = (roles & ROLE_GROUND) != 0;
+      this.boundary = (roles & ROLE_BOUNDARY) != 0;
+      this.playerContact = (roles & ROLE_PLAYER_CONTACT) != 0;
+      this.adjustPlayerContact = (roles & ROLE_ADJUST_PLAYER_CONTACT) != 0;
+    }
 
-    // if the game is being stopped, return
-    if(gameRef == null) {
-      return;
+    @Override
+    void adjust(Object first, Object second, Contact contact) {
+      if(this.adjustPlayerContact) {
+        ((CanAdjustPlayerContact) second).adjustPlayerContact((Player) first, contact);
+      }
     }
 
-    Body bodyA = contact.getFixtureA().getBody();
-    Body bodyB = contact.getFixtureB().getBody();
+    @Override
+    void begin(GameInstance gameRef, Object first, boolean feet, Object second) {
+      Player player = (Player) first;
+
+      if(feet) {
+        // the player can only jump if he is standing on the ground or a block
+        if(this.ground) {
+          player.increaseObjectsBelowFeet();
+        } else if(this.boundary && second == LevelBoundaries.BoundaryType.GROUND) {
+          /*
+           * Reset the player's position to the level's entrance spot.
+           */
+          player.resetPosition();
+        }
+      }
 
-    if(bodyA.getUserData() == null || bodyB.getUserData() == null) {
-      return;
+      if(this.playerContact) {
+        ((CanHandlePlayerContact) second).handlePlayerContactBegin(player);
+      }
     }
 
-    if(bodyA.getUserData() instanceof BulletManager.Bullet) {
+    @Override
+    void end(Object first, boolean feet, Object second) {
+      Player player = (Player) first;
 
-      BulletManager.Bullet bullet = (BulletManager.Bullet) bodyA.getUserData();
-      Object object = bodyB.getUserData();
+      if(this.ground && feet) {
+        player.decreaseObjectsBelowFeet();
+      }
 
-      if(object instanceof CanBeHitByBullet) {
-        ((CanBeHitByBullet) object).hitBy(bullet);
-      } else if(!(object instanceof Traversable)) {
-        gameRef.getBulletManager().destroyBullet(bullet);
+      if(this.playerContact) {
+        ((CanHandlePlayerContact) second).handlePlayerContactEnd(player);
       }
+    }
+  }
 
-      return;
+  private ObjectIntMap<Class<?>> typeIDs = new ObjectIntMap<>();
+  private IntArray typeRoles = new IntArray(INITIAL_TYPES);
 
-    } else if(bodyB.getUserData() instanceof BulletManager.Bullet) {
+  // indexed by the type IDs of the user data of body A and body B
+  private PairHandler[][] handlers = new PairHandler[INITIAL_TYPES][INITIAL_TYPES];
 
-      BulletManager.Bullet bullet = (BulletManager.Bullet) bodyB.getUserData();
-      Object object = bodyA.getUserData();
+  // true if the user data of body B must be given first to the handler
+  private boolean[][] swapped = new boolean[INITIAL_TYPES][INITIAL_TYPES];
 
-      if(object instanceof CanBeHitByBullet) {
-        ((CanBeHitByBullet) object).hitBy(bullet);
-      } else if(!(object instanceof Traversable)) {
-        gameRef.getBulletManager().destroyBullet(bullet);
-      }
+  /*
+   * The ring buffer of the contact events, as parallel arrays.
+   * The objects are already in the order expected by their handler.
+   */
+  private PairHandler[] eventHandlers;
+  private Object[] eventFirsts, eventSeconds;
+  private boolean[] eventBegins, eventFeet;
+  private int eventHead = 0, eventCount = 0;
 
-      return;
+  private int lastStepEvents = 0, maxStepEvents = 0;
+  private long totalEvents = 0;
+
+  public ContactHandler() {
+    this.allocateEvents(Configuration.Physics.CONTACT_EVENTS_CAPACITY);
+  }
+
+  private static int getRoles(Object object) {
+    int roles = 0;
+
+    if(object instanceof BulletManager.Bullet) {
+      roles |= ROLE_BULLET;
+    }
+    if(object instanceof CanBeHitByBullet) {
+      roles |= ROLE_HITTABLE;
+    }
+    if(object instanceof Traversable) {
+      roles |= ROLE_TRAVERSABLE;
+    }
+    if(object instanceof Player) {
+      roles |= ROLE_PLAYER;
+    }
+    if(object instanceof LevelBlock || object instanceof LevelTile) {
+      roles |= ROLE_GROUND;
+    }
+    if(object instanceof LevelBoundaries.BoundaryType) {
+      roles |= ROLE_BOUNDARY;
+    }
+    if(object instanceof CanHandlePlayerContact) {
+      roles |= ROLE_PLAYER_CONTACT;
+    }
+    if(object instanceof CanAdjustPlayerContact) {
+      roles |= ROLE_ADJUST_PLAYER_CONTACT;
     }
 
-    if(contact.getFixtureB().getUserData() instanceof Player.BodyPart) {
+    return roles;
+  }
 
-      Player.BodyPart bodyPart = (Player.BodyPart) contact.getFixtureB().getUserData();
-      if(bodyPart == Player.BodyPart.FEET) {
-        beginContactWithFeet((Player) bodyB.getUserData(), bodyA.getUserData());
+  /**
+   * @return the handler for an object with the first roles against an object with the second ones,
+   * null if they don't care about each other or if the handler expects them the other way round
+   */
+  private static PairHandler createHandler(int firstRoles, int secondRoles) {
+    if((firstRoles & ROLE_BULLET) != 0) {
+      if((secondRoles & ROLE_HITTABLE) != 0) {
+        return BULLET_HIT;
+      } else if((secondRoles & ROLE_TRAVERSABLE) == 0) {
+        return BULLET_STOP;
       }
 
-    } else if(contact.getFixtureA().getUserData() instanceof Player.BodyPart) {
+      return null;
+    }
 
-      Player.BodyPart bodyPart = (Player.BodyPart) contact.getFixtureA().getUserData();
-      if(bodyPart == Player.BodyPart.FEET) {
-        beginContactWithFeet((Player) bodyA.getUserData(), bodyB.getUserData());
+    // the bullets are handled first, whatever the other object is
+    if((secondRoles & ROLE_BULLET) != 0) {
+      return null;
+    }
+
+    if((firstRoles & ROLE_PLAYER) != 0) {
+      if((secondRoles & (ROLE_GROUND | ROLE_BOUNDARY | ROLE_PLAYER_CONTACT | ROLE_ADJUST_PLAYER_CONTACT)) != 0) {
+        return new PlayerPairHandler(secondRoles);
       }
     }
 
+    return null;
+  }
+
+  private int getTypeID(Object object) {
+    int typeID = this.typeIDs.get(object.getClass(), -1);
 
-    if(bodyA.getUserData() instanceof Player) {
+    if(typeID == -1) {
+      typeID = this.registerType(object);
+    }
 
-      Player player = (Player) bodyA.getUserData();
-      Object object = bodyB.getUserData();
+    return typeID;
+  }
 
-      if(object instanceof CanHandlePlayerContact) {
-        ((CanHandlePlayerContact) object).handlePlayerContactBegin(player, contact);
+  /**
+   * Registers the classes of the user data of the bodies already in the world,
+   * so that the first contact of a kind of object doesn't register its class in the middle of the game.
+   */
+  public void registerBodies(World world) {
+    Array<Body> bodies = new Array<>(world.getBodyCount());
+    world.getBodies(bodies);
+
+    for(Body body: bodies) {
+      if(body.getUserData() != null) {
+        this.getTypeID(body.getUserData());
       }
+    }
+  }
+
+  /**
+   * Gives an ID to the class of the object and fills the handlers of its pairs with the known types.
+   */
+  private int registerType(Object object) {
+    int typeID = this.typeRoles.size;
+    int roles = getRoles(object);
 
-    } else if(bodyB.getUserData() instanceof Player) {
+    this.typeIDs.put(object.getClass(), typeID);
+    this.typeRoles.add(roles);
 
-      Player player = (Player) bodyB.getUserData();
-      Object object = bodyA.getUserData();
+    if(typeID >= this.handlers.length) {
+      int capacity = this.handlers.length * 2;
+      PairHandler[][] handlers = new PairHandler[capacity][capacity];
+      boolean[][] swapped = new boolean[capacity][capacity];
 
-      if(object instanceof CanHandlePlayerContact) {
-        ((CanHandlePlayerContact) object).handlePlayerContactBegin(player, contact);
+      for(int i = 0; i < this.handlers.length; i++) {
+        System.arraycopy(this.handlers[i], 0, handlers[i], 0, this.handlers.length);
+        System.arraycopy(this.swapped[i], 0, swapped[i], 0, this.handlers.length);
       }
+
+      this.handlers = handlers;
+      this.swapped = swapped;
+    }
+
+    for(int otherID = 0; otherID <= typeID; otherID++) {
+      int otherRoles = this.typeRoles.get(otherID);
+
+      this.setHandler(typeID, roles, otherID, otherRoles);
+      this.setHandler(otherID, otherRoles, typeID, roles);
     }
+
+    return typeID;
   }
 
-  private void endContactWithFeet(Player player, Object object) {
-    // the player can only jump if he is standing on the ground or a block
-    if(object instanceof LevelBlock || object instanceof LevelTile) {
-      player.decreaseObjectsBelowFeet();
+  private void setHandler(int typeA, int rolesA, int typeB, int rolesB) {
+    PairHandler handler = createHandler(rolesA, rolesB);
+
+    if(handler != null) {
+      this.handlers[typeA][typeB] = handler;
+      this.swapped[typeA][typeB] = false;
+    } else {
+      this.handlers[typeA][typeB] = createHandler(rolesB, rolesA);
+      this.swapped[typeA][typeB] = true;
     }
   }
 
-  @Override
-  public void endContact(Contact contact) {
-    Body bodyA = contact.getFixtureA().getBody();
-    Body bodyB = contact.getFixtureB().getBody();
+  private void allocateEvents(int capacity) {
+    PairHandler[] handlers = new PairHandler[capacity];
+    Object[] firsts = new Object[capacity];
+    Object[] seconds = new Object[capacity];
+    boolean[] begins = new boolean[capacity];
+    boolean[] feet = new boolean[capacity];
+
+    // the events are unrolled at the beginning of the new arrays
+    for(int i = 0; i < this.eventCount; i++) {
+      int index = (this.eventHead + i) % this.eventHandlers.length;
+
+      handlers[i] = this.eventHandlers[index];
+      firsts[i] = this.eventFirsts[index];
+      seconds[i] = this.eventSeconds[index];
+      begins[i] = this.eventBegins[index];
+      feet[i] = this.eventFeet[index];
+    }
 
-    if(bodyA.getUserData() == null || bodyB.getUserData() == null) {
-      return;
+    this.eventHandlers = handlers;
+    this.eventFirsts = firsts;
+    this.eventSeconds = seconds;
+    this.eventBegins = begins;
+    this.eventFeet = feet;
+    this.eventHead = 0;
+  }
+
+  private void addEvent(PairHandler handler, boolean begin, Object first, Fixture firstFixture, Object second) {
+    // the events must never be lost (e.g. the player could not jump anymore), so the buffer grows if needed
+    if(this.eventCount == this.eventHandlers.length) {
+      this.allocateEvents(this.eventHandlers.length * 2);
     }
 
-    if(contact.getFixtureB().getUserData() instanceof Player.BodyPart) {
+    int index = (this.eventHead + this.eventCount) % this.eventHandlers.length;
 
-      Player.BodyPart bodyPart = (Player.BodyPart) contact.getFixtureB().getUserData();
-      if(bodyPart == Player.BodyPart.FEET) {
-        endContactWithFeet((Player) bodyB.getUserData(), bodyA.getUserData());
-      }
+    this.eventHandlers[index] = handler;
+    this.eventBegins[index] = begin;
+    this.eventFirsts[index] = first;
+    this.eventSeconds[index] = second;
+    this.eventFeet[index] = firstFixture.getUserData() == Player.BodyPart.FEET;
 
-    } else if(contact.getFixtureA().getUserData() instanceof Player.BodyPart) {
+    this.eventCount++;
+  }
+
+  /**
+   * Handles the contacts which happened since the last call, in the order they happened.
+   * Must be called after the physics step, and after the bodies are destroyed
+   * since Box2D ends their contacts then.
+   */
+  public void processEvents() {
+    GameInstance gameRef = Betaform.getGameRef();
 
-      Player.BodyPart bodyPart = (Player.BodyPart) contact.getFixtureA().getUserData();
-      if(bodyPart == Player.BodyPart.FEET) {
-        endContactWithFeet((Player) bodyA.getUserData(), bodyB.getUserData());
+    int events = 0;
+
+    // the handlers can't add events, they never touch the world
+    while(this.eventCount > 0) {
+      int index = this.eventHead;
+
+      PairHandler handler = this.eventHandlers[index];
+      Object first = this.eventFirsts[index];
+      Object second = this.eventSeconds[index];
+      boolean feet = this.eventFeet[index];
+      boolean begin = this.eventBegins[index];
+
+      // so that the objects can be garbage collected
+      this.eventHandlers[index] = null;
+      this.eventFirsts[index] = null;
+      this.eventSeconds[index] = null;
+
+      this.eventHead = (this.eventHead + 1) % this.eventHandlers.length;
+      this.eventCount--;
+      events++;
+
+      if(begin) {
+        // if the game is being stopped, the beginnings are dropped
+        if(gameRef != null) {
+          handler.begin(gameRef, first, feet, second);
+        }
+      } else {
+        handler.end(first, feet, second);
       }
     }
 
-    if(bodyA.getUserData() instanceof Player) {
+    this.lastStepEvents = events;
+    this.totalEvents += events;
 
-      Player player = (Player) bodyA.getUserData();
-      Object object = bodyB.getUserData();
+    if(events > this.maxStepEvents) {
+      this.maxStepEvents = events;
+    }
+  }
 
-      if(object instanceof CanHandlePlayerContact) {
-        ((CanHandlePlayerContact) object).handlePlayerContactEnd(player, contact);
-      }
-    } else if(bodyB.getUserData() instanceof Player) {
+  public int getLastStepEvents() {
+    return this.lastStepEvents;
+  }
 
-      Player player = (Player) bodyB.getUserData();
-      Object object = bodyA.getUserData();
+  public int getMaxStepEvents() {
+    return this.maxStepEvents;
+  }
 
-      if(object instanceof CanHandlePlayerContact) {
-        ((CanHandlePlayerContact) object).handlePlayerContactEnd(player, contact);
-      }
+  public long getTotalEvents() {
+    return this.totalEvents;
+  }
+
+  @Override
+  public void beginContact(Contact contact) {
+    Fixture fixtureA = contact.getFixtureA();
+    Fixture fixtureB = contact.getFixtureB();
+
+    Object objectA = fixtureA.getBody().getUserData();
+    Object objectB = fixtureB.getBody().getUserData();
+
+    if(objectA == null || objectB == null) {
+      return;
+    }
+
+    int typeA = this.getTypeID(objectA);
+    int typeB = this.getTypeID(objectB);
+
+    PairHandler handler = this.handlers[typeA][typeB];
+    if(handler == null) {
+      return;
+    }
+
+    if(this.swapped[typeA][typeB]) {
+      handler.adjust(objectB, objectA, contact);
+      this.addEvent(handler, true, objectB, fixtureB, objectA);
+    } else {
+      handler.adjust(objectA, objectB, contact);
+      this.addEvent(handler, true, objectA, fixtureA, objectB);
+    }
+  }
+
+  @Override
+  public void endContact(Contact contact) {
+    Fixture fixtureA = contact.getFixtureA();
+    Fixture fixtureB = contact.getFixtureB();
+
+    Object objectA = fixtureA.getBody().getUserData();
+    Object objectB = fixtureB.getBody().getUserData();
+
+    if(objectA == null || objectB == null) {
+      return;
+    }
+
+    int typeA = this.getTypeID(objectA);
+    int typeB = this.getTypeID(objectB);
+
+    PairHandler handler = this.handlers[typeA][typeB];
+    if(handler == null) {
+      return;
+    }
+
+    if(this.swapped[typeA][typeB]) {
+      this.addEvent(handler, false, objectB, fixtureB, objectA);
+    } else {
+      this.addEvent(handler, false, objectA, fixtureA, objectB);
     }
   }
 
@@ -158,5 +448,11 @@ public class ContactHandler implements ContactListener {
   public void postSolve(Contact contact, ContactImpulse impulse) {
   }
 
-}
+  @Override
+  public String toString() {
+    return
+      this.totalEvents + " contact events, " +
+      "at most " + this.maxStepEvents + " in a step";
+  }
 
+}
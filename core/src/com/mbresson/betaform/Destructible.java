@@ -0,0 +1,17 @@
+package com.mbresson.betaform;
+
+/**
+ * Something which can't be destroyed during a physics step,
+ * and is queued in the DestructionQueue instead.
+ */
+interface Destructible {
+
+  /**
+   * Called after the physics step during which the destruction was requested,
+   * once for each request, so it must do nothing if it has already been destroyed.
+   *
+   * @return true if it was destroyed by this call, false if there was nothing left to destroy
+   */
+  boolean destroy();
+
+}
@@ -0,0 +1,82 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The objects and bullets to be destroyed during a step (by the contacts, see ContactHandler,
+ * or by the bullets of the raycast engine) are queued here and destroyed once all of them are handled,
+ * so that nothing loses its body while another contact of the same step still uses it.
+ *
+ * An object can be queued several times during a step (e.g. if several fixtures of the player
+ * touch it at the same time). Destructible.destroy does nothing the second time,
+ * so the queue doesn't have to look for duplicates.
+ */
+public class DestructionQueue {
+
+  private Array<Destructible> queue = new Array<>(32);
+
+  // to spot the steps where a lot of things are destroyed at once
+  private int lastStepDestructions = 0, maxStepDestructions = 0;
+  private long totalDestructions = 0;
+
+  public void enqueue(Destructible destructible) {
+    this.queue.add(destructible);
+  }
+
+  /**
+   * Takes something out of the queue, it won't be destroyed.
+   * This is rare, so it goes through the queue.
+   */
+  public void cancel(Destructible destructible) {
+    // the same destruction can be requested several times, all the requests are removed
+    for(int i = this.queue.size - 1; i >= 0; i--) {
+      if(this.queue.get(i) == destructible) {
+        this.queue.removeIndex(i);
+      }
+    }
+  }
+
+  /**
+   * Destroys everything queued, in the order it was queued.
+   * Must be called after the physics step.
+   *
+   * Only what is really destroyed is counted, not the requests made twice or for something already destroyed.
+   */
+  public void drain() {
+    int destructions = 0;
+
+    for(int i = 0; i < this.queue.size; i++) {
+      if(this.queue.get(i).destroy()) {
+        destructions++;
+      }
+    }
+
+    this.queue.clear();
+
+    this.lastStepDestructions = destructions;
+    this.totalDestructions += destructions;
+
+    if(destructions > this.maxStepDestructions) {
+      this.maxStepDestructions = destructions;
+    }
+  }
+
+  public int getLastStepDestructions() {
+    return this.lastStepDestructions;
+  }
+
+  public int getMaxStepDestructions() {
+    return this.maxStepDestructions;
+  }
+
+  public long getTotalDestructions() {
+    return this.totalDestructions;
+  }
+
+  @Override
+  public String toString() {
+    return
+      this.totalDestructions + " destructions, " +
+      "at most " + this.maxStepDestructions + " in a step";
+  }
+}
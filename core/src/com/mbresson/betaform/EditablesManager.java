@@ -1,6 +1,6 @@
 package com.mbresson.betaform;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 
@@ -108,7 +108,7 @@ public class EditablesManager implements ResourceEater {
     }
   }
 
-  public void displayEditable(SpriteBatch batch, float x, float y) {
+  public void displayEditable(Batch batch, float x, float y) {
     if(this.mode == ManagerMode.OBJECT_MANAGER) {
       LevelObject editable = this.editables.get(this.currentEditableIndex);
 
@@ -147,13 +147,13 @@ public class EditablesManager implements ResourceEater {
         newObject = new LevelSave((LevelSave) object);
       } else if(object instanceof LevelDoor) {
         newObject = new LevelDoor((LevelDoor) object);
-      }/* else if(object instanceof LevelBlockMoving) { // FIX
+      } else if(object instanceof LevelBlockMoving) {
         newObject = new LevelBlockMoving((LevelBlockMoving) object);
       } else if(object instanceof LevelBlockMovable) {
         newObject = new LevelBlockMovable((LevelBlockMovable) object);
       } else if(object instanceof LevelBlockSwitch) {
         newObject = new LevelBlockSwitch((LevelBlockSwitch) object);
-      }*/ else {
+      } else {
         return;
       }
 
@@ -6,6 +6,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.Screen;
@@ -82,6 +83,8 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
   private OrthographicCamera camera, staticCamera;
   private SpriteBatch cameraBatch, staticBatch;
 
+  private Rectangle visibleArea = new Rectangle();
+
   // the cursor is not the mouse cursor but an invisible cursor used to move around the level and followed by the camera
   private Vector2 cursorPosition = new Vector2();
   private EnumMap<CursorMove, Boolean> cursorMoves;
@@ -157,6 +160,10 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
   }
 
   public void setLevel(Level level) {
+    if(this.level != null && this.level != level) {
+      this.level.dispose();
+    }
+
     this.level = level;
 
     try {
@@ -235,10 +242,14 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
     this.camera.update();
     this.cameraBatch.setProjectionMatrix(this.camera.combined);
 
+    Level.getVisibleArea(this.camera, this.visibleArea);
+
+    this.level.displayTiles(this.camera, this.visibleArea);
+
     this.cameraBatch.enableBlending();
 		this.cameraBatch.begin();
 
-      this.level.display(this.cameraBatch);
+      this.level.display(this.cameraBatch, this.visibleArea);
       if(this.currentAction == ActionType.ADD) {
         Vector2 mousePosition = this.getMouseLevelPosition();
 
@@ -290,6 +301,10 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
 
     this.cameraBatch.dispose();
     this.staticBatch.dispose();
+
+    if(this.level != null) {
+      this.level.dispose();
+    }
   }
 
   @Override
@@ -382,7 +397,21 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
 
   @Override
   public boolean touchUp(int screenX, int screenY, int pointer, int button) {
-    this.editablesManager.addEditable(this.level, this.getMouseLevelPosition());
+    Vector2 mousePosition = this.getMouseLevelPosition();
+
+    switch(this.currentAction) {
+      case ADD:
+        this.editablesManager.addEditable(this.level, mousePosition);
+        break;
+
+      case DELETE:
+        LevelObject object = this.level.findObjectAt(mousePosition.x, mousePosition.y);
+        if(object != null) {
+          this.level.deleteLevelObject(object);
+        }
+        break;
+    }
+
     return false;
   }
 
@@ -434,6 +463,29 @@ public class EditorScreen implements Screen, InputProcessor, GameInstance {
     return null;
   }
 
+  /**
+   * This function is a stub because when running the editor,
+   * no object will need to call it.
+   */
+  @Override
+  public DestructionQueue getDestructionQueue() {
+    return null;
+  }
+
+  /**
+   * This function is a stub because when running the editor,
+   * no object will need to call it.
+   */
+  @Override
+  public AnimationClock getAnimationClock() {
+    return null;
+  }
+
+  @Override
+  public UpdateScheduler getUpdateScheduler() {
+    return null;
+  }
+
   @Override
   public Level getLevel() {
     return this.level;
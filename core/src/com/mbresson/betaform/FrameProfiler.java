@@ -0,0 +1,222 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+
+/**
+ * Measures the time spent in each phase of the last frames, see PerformanceHud.
+ *
+ * A phase can run several times in a frame (once per physics step): its times are added up
+ * until the end of the frame, then kept in a ring buffer of the last frames.
+ * The buffers are created once, so that measuring doesn't allocate anything.
+ *
+ * Nothing is measured while the profiler is disabled.
+ */
+class FrameProfiler {
+
+  public static enum Phase {
+    WORLD_STEP("World.step"),
+    BULLETS_DESTRUCTIONS("moveBullets + drain"),
+    LEVEL_UPDATE("Level.update"),
+    PLAYER_UPDATE("Player.update"),
+    LEVEL_DISPLAY("Level.display"),
+    HUD_DRAW("HUD draw");
+
+    public static final int COUNT = values().length;
+
+    private final String label;
+
+    Phase(String label) {
+      this.label = label;
+    }
+
+    public String getLabel() {
+      return this.label;
+    }
+  }
+
+  /**
+   * The last samples of a measure, in nanoseconds.
+   */
+  public static class Samples {
+    private final long[] values;
+
+    // only used to compute the percentiles
+    private final long[] sorted;
+
+    private int next = 0;
+    private int count = 0;
+
+    private Samples(int capacity) {
+      this.values = new long[capacity];
+      this.sorted = new long[capacity];
+    }
+
+    private void add(long value) {
+      this.values[this.next] = value;
+      this.next = (this.next + 1) % this.values.length;
+
+      if(this.count < this.values.length) {
+        this.count++;
+      }
+    }
+
+    private void clear() {
+      this.next = 0;
+      this.count = 0;
+    }
+
+    public int getCount() {
+      return this.count;
+    }
+
+    public int getCapacity() {
+      return this.values.length;
+    }
+
+    /**
+     * @param age 0 for the last sample, 1 for the one before...
+     */
+    public long get(int age) {
+      int index = this.next - 1 - age;
+      if(index < 0) {
+        index += this.values.length;
+      }
+
+      return this.values[index];
+    }
+
+    public long getMin() {
+      long min = Long.MAX_VALUE;
+      for(int i = 0; i < this.count; i++) {
+        min = Math.min(min, this.values[i]);
+      }
+
+      return this.count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+      long max = 0;
+      for(int i = 0; i < this.count; i++) {
+        max = Math.max(max, this.values[i]);
+      }
+
+      return max;
+    }
+
+    public long getAverage() {
+      if(this.count == 0) {
+        return 0;
+      }
+
+      long sum = 0;
+      for(int i = 0; i < this.count; i++) {
+        sum += this.values[i];
+      }
+
+      return sum / this.count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     */
+    public long getPercentile(int percentile) {
+      if(this.count == 0) {
+        return 0;
+      }
+
+      System.arraycopy(this.values, 0, this.sorted, 0, this.count);
+      Arrays.sort(this.sorted, 0, this.count);
+
+      int index = (int) Math.ceil(this.count * percentile / 100.0) - 1;
+      return this.sorted[Math.max(0, Math.min(index, this.count - 1))];
+    }
+  }
+
+  private final Samples[] phases = new Samples[Phase.COUNT];
+  private final Samples frames;
+
+  // the times of the phases during the current frame
+  private final long[] frameTimes = new long[Phase.COUNT];
+
+  private long frameStart = 0;
+
+  private boolean enabled = false;
+
+  public FrameProfiler(int capacity) {
+    for(int i = 0; i < Phase.COUNT; i++) {
+      this.phases[i] = new Samples(capacity);
+    }
+
+    this.frames = new Samples(capacity);
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * The samples measured before are forgotten when the profiler is enabled again.
+   */
+  public void setEnabled(boolean enabled) {
+    if(enabled && !this.enabled) {
+      for(Samples samples: this.phases) {
+        samples.clear();
+      }
+
+      this.frames.clear();
+      Arrays.fill(this.frameTimes, 0);
+      this.frameStart = 0;
+    }
+
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return the time to give to end, or 0 if the profiler is disabled
+   */
+  public long begin() {
+    return this.enabled ? TimeUtils.nanoTime() : 0;
+  }
+
+  public void end(Phase phase, long start) {
+    if(this.enabled && start != 0) {
+      this.frameTimes[phase.ordinal()] += TimeUtils.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Must be called once per frame, keeps the times of the frame which ends.
+   */
+  public void endFrame() {
+    if(!this.enabled) {
+      return;
+    }
+
+    long now = TimeUtils.nanoTime();
+
+    // the first frame measured has no beginning
+    if(this.frameStart != 0) {
+      this.frames.add(now - this.frameStart);
+
+      for(int i = 0; i < Phase.COUNT; i++) {
+        this.phases[i].add(this.frameTimes[i]);
+      }
+    }
+
+    Arrays.fill(this.frameTimes, 0);
+    this.frameStart = now;
+  }
+
+  public Samples getSamples(Phase phase) {
+    return this.phases[phase.ordinal()];
+  }
+
+  /**
+   * @return the whole time of the last frames, from one call of endFrame to the next
+   */
+  public Samples getFrames() {
+    return this.frames;
+  }
+}
@@ -15,6 +15,9 @@ interface GameInstance {
   public Player getPlayer();
   public BulletManager getBulletManager();
   public Level getLevel();
+  public DestructionQueue getDestructionQueue();
+  public AnimationClock getAnimationClock();
+  public UpdateScheduler getUpdateScheduler();
   public void setPaused(boolean paused);
   public void leaveGame();
   public void nextLevel();
@@ -7,7 +7,9 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.TimeUtils;
 
@@ -25,19 +27,64 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
 
   private SpriteBatch cameraBatch, staticBatch;
 
+  // the part of the level shown by the camera, nothing outside of it is drawn
+  private Rectangle visibleArea = new Rectangle(), snapshotVisibleArea = new Rectangle();
+
   private boolean paused = false;
 
+  /*
+   * When false, no SpriteBatch is created and nothing is drawn:
+   * only the physics and the objects are updated (see the headless launcher).
+   */
+  private boolean rendering = true;
+
+  // set when the game would have left the level, if there is no Betaform instance to go back to
+  private boolean finished = false;
+
+  private long stepCount = 0;
+
+  /*
+   * Only used when the simulation runs on its own thread (see Configuration.Physics.SIMULATION_THREAD):
+   * the game objects are then drawn into snapshots which the GL thread replays.
+   */
+  private SimulationThread simulationThread;
+  private SnapshotBatch snapshotBatch;
+  private OrthographicCamera simulationCamera;
+
+  // set when the simulation thread has asked the GL thread to leave this screen
+  private boolean leaving = false;
+
   private World world;
 
   private Level level;
   private Player player;
   private BulletManager bulletManager;
 
+  private ContactHandler contactHandler = new ContactHandler();
+  private DestructionQueue destructionQueue = new DestructionQueue();
+  private AnimationClock animationClock = new AnimationClock();
+  private UpdateScheduler updateScheduler = new UpdateScheduler();
+
+  /*
+   * The performance HUD is toggled with Configuration.Controls.KEY_PERFORMANCE_HUD, the profiler only measures while it is shown.
+   * It is not available when the simulation runs on its own thread, since the phases would then be measured on another thread.
+   */
+  private FrameProfiler frameProfiler = new FrameProfiler(Configuration.Video.PERFORMANCE_SAMPLES);
+  private PerformanceHud performanceHud;
+
   private Save save;
 
   // used to have a fixed timestep
   private double physicsTimeAccumulator = 0f, currentTime = 0f;
 
+  // the center of the region where the objects are active, see updateActivity
+  private Vector3 activityCenter = new Vector3();
+
+  private StepBudget stepBudget = new StepBudget(
+    Configuration.Physics.MAX_STEPS_PER_FRAME,
+    Configuration.Physics.MAX_STEP_TIME_PER_FRAME
+  );
+
   public GameScreen(Betaform betaformRef) {
     Betaform.setGameRef(this);
 
@@ -46,6 +93,18 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
     this.create(Configuration.Level.FIRST_LEVEL_NAME);
   }
 
+  /**
+   * Creates a game which is only simulated and never displayed,
+   * used to run levels without a GPU.
+   */
+  public GameScreen(String levelName) {
+    Betaform.setGameRef(this);
+
+    this.rendering = false;
+
+    this.create(levelName);
+  }
+
   /**
    * @param start if true, the player starts at the entrance of the level (and the save position is erased). If false, he starts at the position saved.
    */
@@ -70,8 +129,20 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
     this.camera.translate(this.camera.viewportWidth / 2, this.camera.viewportHeight / 2);
     this.staticCamera.translate(this.staticCamera.viewportWidth / 2, this.staticCamera.viewportHeight / 2);
 
-		this.cameraBatch = new SpriteBatch();
-    this.staticBatch = new SpriteBatch();
+    if(this.rendering) {
+      this.cameraBatch = new SpriteBatch();
+      this.staticBatch = new SpriteBatch();
+
+      if(Configuration.Physics.SIMULATION_THREAD) {
+        this.simulationCamera = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        this.simulationCamera.translate(this.simulationCamera.viewportWidth / 2, this.simulationCamera.viewportHeight / 2);
+
+        this.snapshotBatch = new SnapshotBatch();
+        this.simulationThread = new SimulationThread(this);
+      } else {
+        this.performanceHud = new PerformanceHud(this.frameProfiler);
+      }
+    }
 
     this.world = new World(new Vector2(0, Configuration.Physics.GRAVITY), true);
 
@@ -112,46 +183,235 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
       Gdx.app.exit();
     }
 
-    this.world.setContactListener(new ContactHandler());
+    this.world.setContactListener(this.contactHandler);
+    this.contactHandler.registerBodies(this.world);
+
+    this.level.savePhysicsState();
+    this.player.savePhysicsState();
   }
 
+  /**
+   * Runs as many fixed physics steps as the elapsed time allows.
+   * The time left in the accumulator (less than a step) is kept for the next frame
+   * and used to draw the bodies between their two last physics states.
+   *
+   * If the steps due don't fit in the step budget, the time left is dropped
+   * and the game runs in slow motion instead of falling further behind.
+   */
   private void doPhysicsStep() {
     double newTime = TimeUtils.millis() / 1000.0;
     double frameTime = Math.min(newTime - this.currentTime, 0.25);
-    float deltaTime = (float)frameTime;
 
     this.currentTime = newTime;
-    this.physicsTimeAccumulator += deltaTime;
+    this.physicsTimeAccumulator += frameTime;
+
+    this.stepBudget.beginFrame();
+    this.level.getNavPlanner().beginFrame();
 
-    while(this.physicsTimeAccumulator >= Configuration.Physics.FRAMERATE_STEP) {
-      this.world.step(Configuration.Physics.FRAMERATE_STEP, 6, 2);
+    while(this.physicsTimeAccumulator >= Configuration.Physics.FRAMERATE_STEP && this.stepBudget.canStep()) {
+      this.step();
+      this.stepBudget.stepDone();
       this.physicsTimeAccumulator -= Configuration.Physics.FRAMERATE_STEP;
+    }
+
+    int stepsDropped = (int)(this.physicsTimeAccumulator / Configuration.Physics.FRAMERATE_STEP);
+    this.physicsTimeAccumulator -= stepsDropped * Configuration.Physics.FRAMERATE_STEP;
+    this.stepBudget.endFrame(stepsDropped);
+
+    float alpha = 1f;
+    if(Configuration.Physics.INTERPOLATION) {
+      alpha = (float)(this.physicsTimeAccumulator / Configuration.Physics.FRAMERATE_STEP);
+    }
+
+    this.level.interpolate(alpha);
+    this.player.interpolate(alpha);
+    this.bulletManager.interpolate(alpha);
+  }
+
+  /**
+   * Advances the game by exactly one physics step.
+   * It can be called directly to run the simulation faster than real time.
+   */
+  public void step() {
+    this.updateActivity();
+
+    this.level.savePhysicsState();
+    this.player.savePhysicsState();
+    this.bulletManager.savePhysicsState();
+
+    long start = this.frameProfiler.begin();
+    this.world.step(Configuration.Physics.FRAMERATE_STEP, 6, 2);
+    this.frameProfiler.end(FrameProfiler.Phase.WORLD_STEP, start);
+
+    this.contactHandler.processEvents();
+
+    start = this.frameProfiler.begin();
+    this.bulletManager.moveBullets(Configuration.Physics.FRAMERATE_STEP);
+    this.destructionQueue.drain();
 
-      this.level.update(deltaTime);
-      this.player.update(deltaTime);
-      this.bulletManager.update(deltaTime);
+    // the contacts ended by the destroyed bodies
+    this.contactHandler.processEvents();
+    this.frameProfiler.end(FrameProfiler.Phase.BULLETS_DESTRUCTIONS, start);
+
+    this.animationClock.advance(Configuration.Physics.FRAMERATE_STEP);
+
+    start = this.frameProfiler.begin();
+    this.level.update(Configuration.Physics.FRAMERATE_STEP);
+    this.frameProfiler.end(FrameProfiler.Phase.LEVEL_UPDATE, start);
+
+    start = this.frameProfiler.begin();
+    this.player.update(Configuration.Physics.FRAMERATE_STEP);
+    this.frameProfiler.end(FrameProfiler.Phase.PLAYER_UPDATE, start);
+
+    this.bulletManager.update(Configuration.Physics.FRAMERATE_STEP);
+
+    this.updateScheduler.advance();
+    this.stepCount++;
+  }
+
+  /**
+   * The objects are active around where the camera would be,
+   * computed from the physics position of the player so that it doesn't depend on the rendering.
+   */
+  private void updateActivity() {
+    Vector2 playerPosition = this.player.getPhysicsPosition();
+
+    this.activityCenter.set(
+      playerPosition.x * Configuration.Physics.WORLD_UNIT_TO_PIXELS,
+      playerPosition.y * Configuration.Physics.WORLD_UNIT_TO_PIXELS,
+      0
+    );
+
+    this.level.getBoundaries().limitPosition(
+      this.activityCenter,
+      Configuration.Video.WINDOW_WIDTH / 2,
+      Configuration.Video.WINDOW_HEIGHT / 2
+    );
+
+    this.level.updateActivity(this.activityCenter.x, this.activityCenter.y);
+  }
+
+  /**
+   * Called by the simulation thread instead of render.
+   */
+  void simulate() {
+    if(!this.paused) {
+      this.doPhysicsStep();
     }
   }
 
+  /**
+   * Called by the simulation thread after each pass,
+   * draws everything that render would draw into the snapshot.
+   */
+  void recordSnapshot(RenderSnapshot snapshot) {
+    if(!this.paused) {
+      this.followPlayer(this.simulationCamera);
+    }
+
+    snapshot.cameraX = this.simulationCamera.position.x;
+    snapshot.cameraY = this.simulationCamera.position.y;
+
+    Level.getVisibleArea(this.simulationCamera, this.snapshotVisibleArea);
+
+    this.snapshotBatch.setLayer(snapshot.world);
+    this.snapshotBatch.begin();
+
+      this.level.display(this.snapshotBatch, this.snapshotVisibleArea);
+      this.player.display(this.snapshotBatch);
+      this.bulletManager.display(this.snapshotBatch, this.snapshotVisibleArea);
+
+    this.snapshotBatch.end();
+
+    this.snapshotBatch.setLayer(snapshot.hud);
+    this.snapshotBatch.begin();
+
+      this.player.displayOverlay(this.snapshotBatch);
+      this.player.displayInteraction(this.snapshotBatch);
+
+    this.snapshotBatch.end();
+  }
+
+  private void followPlayer(OrthographicCamera camera) {
+    camera.position.set(this.player.getCenterX(), this.player.getCenterY(), 0);
+    this.level.getBoundaries().limitCamera(camera);
+  }
+
+  public StepBudget getStepBudget() {
+    return this.stepBudget;
+  }
+
+  public ContactHandler getContactHandler() {
+    return this.contactHandler;
+  }
+
+  public long getStepCount() {
+    return this.stepCount;
+  }
+
+  /**
+   * @return true if the player has died or reached the exit of a simulated level
+   */
+  public boolean isFinished() {
+    return this.finished;
+  }
+
+  /**
+   * Brings the player back to life after he died in a simulated level, so that the simulation can go on.
+   */
+  public void respawnPlayer() {
+    this.player.respawn();
+    this.finished = false;
+  }
+
   @Override
   public void render(float delta) {
+    if(!this.rendering) {
+      if(!this.paused) {
+        this.doPhysicsStep();
+      }
+
+      return;
+    }
+
 		Gdx.gl.glClearColor(0.9f, 0.9f, 0.9f, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+    if(this.simulationThread != null) {
+      this.displaySnapshot(this.simulationThread.acquireSnapshot());
+      return;
+    }
+
+    // the batches count their render calls from their last begin, so these are the calls of the last frame
+    int renderCalls = this.cameraBatch.renderCalls + this.staticBatch.renderCalls;
+
+    /*
+     * The physics is stepped before drawing so that the sprites
+     * are interpolated for the frame which is about to be displayed.
+     */
     if(!this.paused) {
-      this.camera.position.set(this.player.getCenterX(), this.player.getCenterY(), 0);
-      this.level.getBoundaries().limitCamera(this.camera);
+      this.doPhysicsStep();
+      this.followPlayer(this.camera);
     }
 
     this.camera.update();
     this.cameraBatch.setProjectionMatrix(this.camera.combined);
 
+    Level.getVisibleArea(this.camera, this.visibleArea);
+
+    long start = this.frameProfiler.begin();
+    this.level.displayTiles(this.camera, this.visibleArea);
+    this.frameProfiler.end(FrameProfiler.Phase.LEVEL_DISPLAY, start);
+
     this.cameraBatch.enableBlending();
 		this.cameraBatch.begin();
 
-      this.level.display(this.cameraBatch);
+      start = this.frameProfiler.begin();
+      this.level.display(this.cameraBatch, this.visibleArea);
+      this.frameProfiler.end(FrameProfiler.Phase.LEVEL_DISPLAY, start);
+
       this.player.display(this.cameraBatch);
-      this.bulletManager.display(this.cameraBatch);
+      this.bulletManager.display(this.cameraBatch, this.visibleArea);
 
 		this.cameraBatch.end();
 
@@ -159,14 +419,51 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
     this.staticBatch.setProjectionMatrix(this.staticCamera.combined);
     this.staticBatch.begin();
 
+      start = this.frameProfiler.begin();
       this.player.displayOverlay(this.staticBatch);
       this.player.displayInteraction(this.staticBatch);
+      this.frameProfiler.end(FrameProfiler.Phase.HUD_DRAW, start);
+
+      if(this.frameProfiler.isEnabled()) {
+        this.performanceHud.display(
+          this.staticBatch, renderCalls, this.world.getBodyCount(), this.world.getContactCount()
+        );
+      }
 
     this.staticBatch.end();
 
-    if(!this.paused) {
-      this.doPhysicsStep();
-    }
+    this.frameProfiler.endFrame();
+  }
+
+  /**
+   * Only draws what the simulation thread has recorded, the game objects are not read.
+   */
+  private void displaySnapshot(RenderSnapshot snapshot) {
+    this.camera.position.set(snapshot.cameraX, snapshot.cameraY, 0);
+    this.camera.update();
+    this.cameraBatch.setProjectionMatrix(this.camera.combined);
+
+    /*
+     * The tiles are not in the snapshot: they never move,
+     * and their cache is only used by the GL thread.
+     */
+    Level.getVisibleArea(this.camera, this.visibleArea);
+    this.level.displayTiles(this.camera, this.visibleArea);
+
+    this.cameraBatch.enableBlending();
+    this.cameraBatch.begin();
+
+      snapshot.world.draw(this.cameraBatch);
+
+    this.cameraBatch.end();
+
+    this.staticCamera.update();
+    this.staticBatch.setProjectionMatrix(this.staticCamera.combined);
+    this.staticBatch.begin();
+
+      snapshot.hud.draw(this.staticBatch);
+
+    this.staticBatch.end();
   }
 
   @Override
@@ -179,11 +476,19 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
 
     Gdx.input.setInputProcessor(this);
     Gdx.input.setCursorCatched(true);
+
+    if(this.simulationThread != null) {
+      this.simulationThread.start();
+    }
   }
 
   @Override
   public void hide() {
     Gdx.input.setCursorCatched(false);
+
+    if(this.simulationThread != null) {
+      this.simulationThread.stop();
+    }
   }
 
   @Override
@@ -196,14 +501,47 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
 
   @Override
   public void dispose() {
-    this.cameraBatch.dispose();
-    this.staticBatch.dispose();
+    if(this.simulationThread != null) {
+      this.simulationThread.stop();
+    }
+
+    if(this.rendering) {
+      this.cameraBatch.dispose();
+      this.staticBatch.dispose();
+    }
+
+    if(this.performanceHud != null) {
+      this.performanceHud.dispose();
+    }
+
+    this.level.dispose();
 
     this.world.dispose();
   }
 
   @Override
   public boolean keyDown(int keycode) {
+    if(this.simulationThread != null) {
+      this.simulationThread.postKeyDown(keycode);
+    } else {
+      this.handleKeyDown(keycode);
+    }
+
+    return false;
+  }
+
+  @Override
+  public boolean keyUp(int keycode) {
+    if(this.simulationThread != null) {
+      this.simulationThread.postKeyUp(keycode);
+    } else {
+      this.handleKeyUp(keycode);
+    }
+
+    return false;
+  }
+
+  void handleKeyDown(int keycode) {
     if(!this.paused) {
       switch(keycode) {
         case Configuration.Controls.KEY_MOVE_LEFT:
@@ -224,12 +562,9 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
           break;
       }
     }
-
-    return false;
   }
 
-  @Override
-  public boolean keyUp(int keycode) {
+  void handleKeyUp(int keycode) {
     switch(keycode) {
       case Configuration.Controls.KEY_ACTION:
         this.player.interact();
@@ -244,6 +579,12 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
           this.paused = !this.paused;
         }
         break;
+
+      case Configuration.Controls.KEY_PERFORMANCE_HUD:
+        if(this.performanceHud != null) {
+          this.frameProfiler.setEnabled(!this.frameProfiler.isEnabled());
+        }
+        break;
     }
 
     if(!this.paused) {
@@ -282,8 +623,6 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
           break;
       }
     }
-
-    return false;
   }
 
   @Override
@@ -336,6 +675,21 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
     return this.level;
   }
 
+  @Override
+  public DestructionQueue getDestructionQueue() {
+    return this.destructionQueue;
+  }
+
+  @Override
+  public AnimationClock getAnimationClock() {
+    return this.animationClock;
+  }
+
+  @Override
+  public UpdateScheduler getUpdateScheduler() {
+    return this.updateScheduler;
+  }
+
   @Override
   public void setPaused(boolean paused) {
     this.paused = paused;
@@ -343,13 +697,53 @@ public class GameScreen implements Screen, InputProcessor, GameInstance {
 
   @Override
   public void nextLevel() {
-    Save save = new Save(this.player.createSave(), this.level.getNextlevel());
-    this.betaformRef.newGame(this.level.getNextlevel(), save);
+    if(this.betaformRef == null) {
+      this.finished = true;
+      return;
+    }
+
+    final Save save = new Save(this.player.createSave(), this.level.getNextlevel());
+    final String nextLevel = this.level.getNextlevel();
+
+    this.leaveScreen(new Runnable() {
+      @Override
+      public void run() {
+        betaformRef.newGame(nextLevel, save);
+      }
+    });
   }
 
   @Override
   public void leaveGame() {
-    this.betaformRef.mainMenu();
+    if(this.betaformRef == null) {
+      this.finished = true;
+      return;
+    }
+
+    this.leaveScreen(new Runnable() {
+      @Override
+      public void run() {
+        betaformRef.mainMenu();
+      }
+    });
+  }
+
+  /**
+   * The screens can only be changed from the GL thread,
+   * so when called by the simulation thread, the change is posted to it.
+   */
+  private void leaveScreen(Runnable change) {
+    if(this.simulationThread == null) {
+      change.run();
+      return;
+    }
+
+    if(this.leaving) {
+      return;
+    }
+
+    this.leaving = true;
+    Gdx.app.postRunnable(change);
   }
 }
 
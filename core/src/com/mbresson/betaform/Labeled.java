@@ -0,0 +1,11 @@
+package com.mbresson.betaform;
+
+/**
+ * Implemented by the enums whose label is the name of a region in a texture atlas,
+ * see AtlasRegionTable.
+ */
+interface Labeled {
+
+  String getLabel();
+
+}
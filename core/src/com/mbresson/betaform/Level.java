@@ -3,13 +3,17 @@ package com.mbresson.betaform;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 import com.badlogic.gdx.utils.ObjectMap;
 
+import java.util.Comparator;
+
 public class Level implements ResourceEater, Json.Serializable {
 
   private static final String classID = Level.class.getName();
@@ -23,13 +27,53 @@ public class Level implements ResourceEater, Json.Serializable {
 
   private Array<LevelTile> tiles = new Array<>(200);
   private LevelTileDisplayer tileDisplayer;
+  private LevelTileCache tileCache;
+
+  // the number of Box2D rectangles the tiles are merged into, see LevelTileGeometry
+  private int collisionRectangles = 0;
 
   private Array<LevelObject> objects = new Array<>(200);
 
-  private Array<LevelObject> objectsToBeDestroyed = new Array<>(10);
+  // the paths of the enemies, built once the tiles are loaded
+  private NavPlanner navPlanner;
+
+  // null unless the objects are updated by entity systems, see Configuration.Level.ENTITY_SYSTEMS
+  private LevelEntities entities;
 
   private LevelBoundaries boundaries;
 
+  /*
+   * The objects and tiles are also indexed by their position,
+   * so that the ones in an area can be found without going through the whole level.
+   */
+  private SpatialGrid<LevelObject> objectGrid = new SpatialGrid<>(
+    Configuration.Level.TILE_WIDTH,
+    Configuration.Level.TILE_HEIGHT
+  );
+  private SpatialGrid<LevelTile> tileGrid = new SpatialGrid<>(
+    Configuration.Level.TILE_WIDTH,
+    Configuration.Level.TILE_HEIGHT
+  );
+
+  private Rectangle bounds = new Rectangle();
+
+  // see updateActivity
+  private Rectangle wakeRegion = new Rectangle(), sleepRegion = new Rectangle();
+  private Array<LevelObject> activeObjects = new Array<>(false, 200);
+  private Array<LevelObject> nearbyObjects = new Array<>(50);
+
+  // see display
+  private Rectangle displayArea = new Rectangle();
+  private Array<LevelObject> visibleObjects = new Array<>(100);
+  private int nextDisplayOrder = 0;
+
+  private static final Comparator<LevelObject> displayOrderComparator = new Comparator<LevelObject>() {
+    @Override
+    public int compare(LevelObject a, LevelObject b) {
+      return a.getDisplayOrder() - b.getDisplayOrder();
+    }
+  };
+
   public LevelPortal getEntrance() {
     return this.entrance;
   }
@@ -145,39 +189,218 @@ public class Level implements ResourceEater, Json.Serializable {
    * Writes the level to a level-name.json file.
    */
   public void writeToFile() {
+    String path = "data/levels/" + this.levelName + ".json";
+
+    this.writeTo(Gdx.files.local(path));
+
+    System.out.println("@Level written at " + path);
+  }
+
+  /**
+   * Writes the level as json to any file, which is overwritten.
+   */
+  public void writeTo(FileHandle file) {
     Json json = new Json();
     json.setOutputType(JsonWriter.OutputType.json);
 
-    String path = "data/levels/" + this.levelName + ".json";
-
-    FileHandle file = Gdx.files.local(path);
     file.writeString(json.prettyPrint(this), false);
+  }
 
-    System.out.println("@Level written at " + path);
+  /**
+   * @param area set to the part of the level shown by the camera, in pixels
+   * @return area
+   */
+  public static Rectangle getVisibleArea(OrthographicCamera camera, Rectangle area) {
+    float width = camera.viewportWidth * camera.zoom;
+    float height = camera.viewportHeight * camera.zoom;
+
+    return area.set(
+      camera.position.x - width/2,
+      camera.position.y - height/2,
+      width,
+      height
+    );
+  }
+
+  /**
+   * The sprites are drawn between two physics steps, slightly away from their bounds in the grid,
+   * and the blocks of the tiles are drawn from their bottom left corner,
+   * so the area used to find what must be drawn is a bit larger than what is visible.
+   */
+  private Rectangle getDisplayArea(Rectangle visibleArea) {
+    return this.displayArea.set(
+      visibleArea.x - Configuration.Level.TILE_WIDTH,
+      visibleArea.y - Configuration.Level.TILE_HEIGHT,
+      visibleArea.width + Configuration.Level.TILE_WIDTH * 2,
+      visibleArea.height + Configuration.Level.TILE_HEIGHT * 2
+    );
+  }
+
+  /**
+   * Draws the tiles which can be seen in the visible area.
+   * Must be called before display, out of any SpriteBatch begin/end.
+   *
+   * @param visibleArea in pixels, see getVisibleArea
+   */
+  public void displayTiles(OrthographicCamera camera, Rectangle visibleArea) {
+    this.tileCache.display(camera, this.getDisplayArea(visibleArea));
   }
 
-  public void display(SpriteBatch batch) {
-    for(LevelTile tile: tiles) {
-      tileDisplayer.display(batch, tile);
+  /**
+   * Only draws the objects which can be seen in the visible area.
+   * They are still drawn in the order of the level.
+   *
+   * @param visibleArea in pixels, see getVisibleArea
+   */
+  public void display(Batch batch, Rectangle visibleArea) {
+    this.getDisplayArea(visibleArea);
+
+    if(entrance.getBounds(this.bounds).overlaps(this.displayArea)) {
+      entrance.display(batch);
     }
 
-    entrance.display(batch);
-    exit.display(batch);
+    if(exit.getBounds(this.bounds).overlaps(this.displayArea)) {
+      exit.display(batch);
+    }
 
-    for(LevelObject object: objects) {
+    this.visibleObjects.clear();
+    this.objectGrid.query(this.displayArea, this.visibleObjects);
+    this.visibleObjects.sort(displayOrderComparator);
+
+    for(LevelObject object: this.visibleObjects) {
       object.display(batch);
     }
   }
 
   public void update(float deltaTime) {
-    for(LevelObject object: objectsToBeDestroyed) {
-      this.objects.removeValue(object, true);
-      object.dispose();
+    if(this.entities != null) {
+      this.entities.update(deltaTime);
+    }
+
+    for(LevelObject object: objects) {
+      if(object.isActive()) {
+        if(this.entities == null || !this.entities.hasObject(object)) {
+          object.update(deltaTime);
+        }
+
+        if(object.isMobile()) {
+          this.objectGrid.put(object, object.getBounds(this.bounds));
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds to result the objects which overlap the area (in pixels).
+   */
+  public Array<LevelObject> queryObjects(Rectangle area, Array<LevelObject> result) {
+    return this.objectGrid.query(area, result);
+  }
+
+  /**
+   * Adds to result the objects less than radius pixels away from (x, y).
+   */
+  public Array<LevelObject> queryObjects(float x, float y, float radius, Array<LevelObject> result) {
+    return this.objectGrid.query(x, y, radius, result);
+  }
+
+  /**
+   * Adds to result the tiles which overlap the area (in pixels).
+   */
+  public Array<LevelTile> queryTiles(Rectangle area, Array<LevelTile> result) {
+    return this.tileGrid.query(area, result);
+  }
+
+  /**
+   * @return an object under the point (in pixels), or null if there is none
+   */
+  public LevelObject findObjectAt(float x, float y) {
+    this.nearbyObjects.clear();
+    this.objectGrid.query(x, y, 0, this.nearbyObjects);
+
+    LevelObject found = this.nearbyObjects.size > 0 ? this.nearbyObjects.first() : null;
+    this.nearbyObjects.clear();
+
+    return found;
+  }
+
+  /**
+   * Deactivates the objects far from the given point and wakes up the ones which came back near it.
+   * The objects are always checked in the same order (the active ones, then the cells of the grid around the point),
+   * so that a given run of the game always wakes them up the same way.
+   *
+   * Must be called before the physics step.
+   *
+   * @param x the center of the region in pixels, usually where the camera is
+   * @param y see x
+   */
+  public void updateActivity(float x, float y) {
+    float halfWidth = Configuration.Video.WINDOW_WIDTH / 2 + Configuration.Level.ACTIVITY_MARGIN;
+    float halfHeight = Configuration.Video.WINDOW_HEIGHT / 2 + Configuration.Level.ACTIVITY_MARGIN;
+
+    this.wakeRegion.set(x - halfWidth, y - halfHeight, halfWidth * 2, halfHeight * 2);
+
+    halfWidth += Configuration.Level.ACTIVITY_HYSTERESIS;
+    halfHeight += Configuration.Level.ACTIVITY_HYSTERESIS;
+
+    this.sleepRegion.set(x - halfWidth, y - halfHeight, halfWidth * 2, halfHeight * 2);
+
+    // only the objects already active and the ones found around the point need to be checked
+    for(int i = this.activeObjects.size - 1; i >= 0; i--) {
+      LevelObject object = this.activeObjects.get(i);
+
+      // the destroyed objects are only taken out of this list here
+      if(object.getLevelIndex() == -1) {
+        this.activeObjects.removeIndex(i);
+        continue;
+      }
+
+      object.updateActivity(this.wakeRegion, this.sleepRegion);
+
+      if(!object.isActive()) {
+        this.activeObjects.removeIndex(i);
+      }
+    }
+
+    this.nearbyObjects.clear();
+    this.objectGrid.query(this.wakeRegion, this.nearbyObjects);
+
+    for(LevelObject object: this.nearbyObjects) {
+      if(object.isActive()) {
+        continue;
+      }
+
+      // the bounds may overlap the region while the center is still out of it
+      object.updateActivity(this.wakeRegion, this.sleepRegion);
+
+      if(object.isActive()) {
+        this.activeObjects.add(object);
+      }
+    }
+  }
+
+  /**
+   * Releases the graphics resources of the level.
+   */
+  public void dispose() {
+    if(this.tileCache != null) {
+      this.tileCache.dispose();
+    }
+
+    if(this.entities != null) {
+      this.entities.dispose();
+    }
+  }
+
+  public void savePhysicsState() {
+    for(LevelObject object: objects) {
+      object.savePhysicsState();
     }
-    objectsToBeDestroyed.clear();
+  }
 
+  public void interpolate(float alpha) {
     for(LevelObject object: objects) {
-      object.update(deltaTime);
+      object.interpolate(alpha);
     }
   }
 
@@ -187,22 +410,46 @@ public class Level implements ResourceEater, Json.Serializable {
     return json.prettyPrint(this);
   }
 
+  /**
+   * The object is destroyed after the current physics step, see DestructionQueue.
+   */
   public void removeObject(LevelObject object) {
-    /*
-     * We queue the objects to be destroyed:
-     * we can't destroy them while the physics engine is in the middle of its computations.
-     */
-
-    /*
-     * Also, make sure an object is not set to be destroyed twice:
-     * it can happen if several fixtures of the player are in contact with the object at the same time
-     * and call the removeObject function at the same time.
-     */
-    if(this.objectsToBeDestroyed.contains(object, true)) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null || gameRef.getDestructionQueue() == null) {
       return;
     }
 
-    objectsToBeDestroyed.add(object);
+    gameRef.getDestructionQueue().enqueue(object);
+  }
+
+  /**
+   * Called by the DestructionQueue.
+   * The last object takes the place of the destroyed one, so that nothing is shifted.
+   *
+   * @return false if the object was already destroyed
+   */
+  boolean destroyLevelObject(LevelObject object) {
+    int index = object.getLevelIndex();
+    if(index == -1) {
+      return false;
+    }
+
+    LevelObject last = this.objects.pop();
+    if(last != object) {
+      this.objects.set(index, last);
+      last.setLevelIndex(index);
+    }
+
+    object.setLevelIndex(-1);
+    this.objectGrid.remove(object);
+
+    if(this.entities != null) {
+      this.entities.removeObject(object);
+    }
+
+    object.dispose();
+
+    return true;
   }
 
   @Override
@@ -268,7 +515,45 @@ public class Level implements ResourceEater, Json.Serializable {
     }
 
     for(LevelTile tile: this.tiles) {
-      tile.load(this.tileDisplayer.getSpriteSizeForTile(tile.getType()));
+      tile.setSpriteSize(this.tileDisplayer.getSpriteSizeForTile(tile.getType()));
+      this.tileGrid.put(tile, tile.getBounds(this.bounds));
+    }
+
+    this.collisionRectangles = LevelTileGeometry.build(this.tiles);
+
+    this.tileCache = new LevelTileCache(this, this.tileDisplayer);
+
+    // the objects move across the whole level, and slightly past its edges because of the physics
+    this.objectGrid.reserve(this.bounds.set(
+      -Configuration.Level.TILE_WIDTH,
+      -Configuration.Level.TILE_HEIGHT,
+      this.width + Configuration.Level.TILE_WIDTH * 2,
+      this.height + Configuration.Level.TILE_HEIGHT * 2
+    ));
+
+    for(int i = 0; i < this.objects.size; i++) {
+      LevelObject object = this.objects.get(i);
+
+      object.setLevelIndex(i);
+      object.setDisplayOrder(this.nextDisplayOrder++);
+      this.objectGrid.put(object, object.getBounds(this.bounds));
+      this.activeObjects.add(object);
+    }
+
+    this.navPlanner = new NavPlanner(this);
+
+    for(LevelObject object: this.objects) {
+      if(object instanceof LevelDoor && ((LevelDoor) object).isClosed()) {
+        this.navPlanner.patch(object.getBounds(this.bounds), true);
+      }
+    }
+
+    if(Configuration.Level.ENTITY_SYSTEMS) {
+      this.entities = new LevelEntities();
+
+      for(LevelObject object: this.objects) {
+        this.entities.addObject(object);
+      }
     }
   }
 
@@ -278,8 +563,8 @@ public class Level implements ResourceEater, Json.Serializable {
   @Override
   public void write(Json json) {
     /*
-     * TODO: group all tiles in horizontal groups to make collision detection easier
-     * and avoid bugs.
+     * The tiles are written as they were placed,
+     * they are only merged into bigger collision shapes when loaded (see LevelTileGeometry).
      */
 
     /*
@@ -317,10 +602,69 @@ public class Level implements ResourceEater, Json.Serializable {
 
   public void addLevelObject(LevelObject object) {
     this.objects.add(object);
+
+    object.setLevelIndex(this.objects.size - 1);
+    object.setDisplayOrder(this.nextDisplayOrder++);
+    this.objectGrid.put(object, object.getBounds(this.bounds));
+
+    if(object.isActive()) {
+      this.activeObjects.add(object);
+    }
+
+    if(this.entities != null) {
+      this.entities.addObject(object);
+    }
+  }
+
+  /**
+   * Removes an object at once, must not be called during a physics step (see removeObject).
+   */
+  public void deleteLevelObject(LevelObject object) {
+    /*
+     * Unlike destroyLevelObject, the order of the objects is kept,
+     * since it is the order in which they are written to the level file.
+     */
+    this.objects.removeIndex(object.getLevelIndex());
+    this.activeObjects.removeValue(object, true);
+    this.objectGrid.remove(object);
+    object.setLevelIndex(-1);
+
+    if(this.entities != null) {
+      this.entities.removeObject(object);
+    }
+
+    object.dispose();
+
+    for(int i = 0; i < this.objects.size; i++) {
+      this.objects.get(i).setLevelIndex(i);
+    }
   }
 
   public void addLevelTile(LevelTile tile) {
     this.tiles.add(tile);
+    this.tileGrid.put(tile, tile.getBounds(this.bounds));
+
+    if(this.tileCache != null) {
+      this.tileCache.invalidate(tile);
+    }
+  }
+
+  /**
+   * @return null until the level is postloaded
+   */
+  public NavPlanner getNavPlanner() {
+    return this.navPlanner;
+  }
+
+  public Array<LevelTile> getTiles() {
+    return this.tiles;
+  }
+
+  /**
+   * @return 0 until the level is postloaded
+   */
+  public int getCollisionRectangles() {
+    return this.collisionRectangles;
   }
 
 }
@@ -28,7 +28,7 @@ public class LevelAddon extends LevelArtifact implements CanHandlePlayerContact,
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     if(this.getUsed()) {
       return;
     }
@@ -47,7 +47,7 @@ public class LevelAddon extends LevelArtifact implements CanHandlePlayerContact,
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     // do nothing, as soon as an addon is touched by the player, it disappears
   }
 }
@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.Json;
@@ -60,7 +60,7 @@ abstract class LevelArtifact extends LevelObject {
     return this.type;
   }
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     sprite.draw(batch);
   }
 
@@ -97,6 +97,8 @@ abstract class LevelArtifact extends LevelObject {
     fixtureDef.density = 1f;
     fixtureDef.isSensor = true; // traversable
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -104,12 +106,15 @@ abstract class LevelArtifact extends LevelObject {
     this.syncGraphicsFromPhysics();
   }
 
+  // the update only moves the sprite to the body
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return true;
+  }
+
   @Override
   public void update(float deltaTime) {
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
   }
 
   @Override
@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.physics.box2d.*;
 
@@ -23,18 +23,21 @@ abstract class LevelBlock extends LevelObject {
     super();
   }
 
+  /**
+   * The copy has no body yet: the constructor of the concrete class must call {@link #initPhysics()}
+   * once its own fields are copied, since they can change the body (e.g. the size of a moving block).
+   */
   public LevelBlock(LevelBlock block) {
     super(block);
 
     this.type = block.getType();
+    this.textureAtlas = block.textureAtlas;
     this.sprite = new Sprite(this.textureAtlas.findRegion(this.getType()));
     this.sprite.setX(this.position.getX() + this.sprite.getWidth()/2);
     this.sprite.setY(this.position.getY() + this.sprite.getHeight()/2);
-
-    this.initPhysics();
   }
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     sprite.draw(batch);
   }
 
@@ -69,6 +72,8 @@ abstract class LevelBlock extends LevelObject {
     FixtureDef fixtureDef = new FixtureDef();
     fixtureDef.shape = shape;
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = this.body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -76,12 +81,15 @@ abstract class LevelBlock extends LevelObject {
     this.syncGraphicsFromPhysics();
   }
 
+  // the update only moves the sprite to the body
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return true;
+  }
+
   @Override
   public void update(float deltaTime) {
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
   }
 
   @Override
@@ -14,6 +14,8 @@ public class LevelBlockMovable extends LevelBlock implements CanHandlePlayerCont
 
   public LevelBlockMovable(LevelBlockMovable movable) {
     super(movable);
+
+    this.initPhysics();
   }
 
   public void stick(Player player) {
@@ -45,12 +47,12 @@ public class LevelBlockMovable extends LevelBlock implements CanHandlePlayerCont
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     player.addMovable(this);
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     player.removeMovable(this);
   }
 }
@@ -1,15 +1,17 @@
 package com.mbresson.betaform;
 
+import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 
-public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHandlePlayerContact {
+public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHandlePlayerContact, CanAdjustPlayerContact {
 
   public String getType() { return "moving"; } 
 
@@ -33,6 +35,9 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
 
   private BehaviorAutomated behavior;
 
+  // returned by getPhysicsPosition, which is called at each contact with the player
+  private Vector2 physicsPosition = new Vector2();
+
   public LevelBlockMoving() {
     super();
     this.type = "moving";
@@ -42,13 +47,41 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
     super(moving);
 
     this.size = new Size(moving.size);
-    this.behavior = moving.behavior;// FIX clone instead of copying the reference
+    this.behavior = moving.behavior == null ? null : new BehaviorAutomated(moving.behavior);
+
+    this.initPhysics();
+  }
+
+  @Override
+  public void postloadResources() throws ResourceLoader.NotPreloadedYetException {
+    super.postloadResources();
+
+    if(this.behavior != null) {
+      this.behavior.prepare();
+    }
   }
 
   @Override
   public void update(float deltaTime) {
     super.update(deltaTime);
 
+    this.scheduleTick(deltaTime);
+  }
+
+  @Override
+  protected void addComponents(Entity entity) {
+    super.addComponents(entity);
+
+    entity.add(new LevelComponents.TickComponent());
+  }
+
+  @Override
+  protected int getTickInterval() {
+    return this.behavior.getTickInterval();
+  }
+
+  @Override
+  protected void tick(float elapsed) {
     this.behavior.behave(this);
   }
 
@@ -65,6 +98,16 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
     // nothing to do
   }
 
+  @Override
+  public Vector2 getPhysicsVelocity() {
+    return this.body.getLinearVelocity();
+  }
+
+  @Override
+  public boolean keepsVelocity() {
+    return true;
+  }
+
   @Override
   public void stop() {
   }
@@ -117,6 +160,8 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
     fixtureDef.friction = 0f;
     fixtureDef.shape = shape;
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = this.body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -125,7 +170,7 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
   }
 
   @Override
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     float baseX = this.sprite.getX();
     float baseY = this.sprite.getY();
     float baseWidth = this.sprite.getWidth();
@@ -142,6 +187,17 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
     }
   }
 
+  @Override
+  public Rectangle getBounds(Rectangle bounds) {
+    // the body is placed at the center of the first block, see initPhysics
+    super.getBounds(bounds);
+
+    bounds.width *= this.size.width;
+    bounds.height *= this.size.height;
+
+    return bounds;
+  }
+
   @Override
   public float getHeight() {
     return super.getHeight() * size.height;
@@ -152,9 +208,12 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
     return super.getWidth() * size.width;
   }
 
+  /**
+   * The vector is reused at each call.
+   */
   @Override
   public Vector2 getPhysicsPosition() {
-    Vector2 position = new Vector2(
+    Vector2 position = this.physicsPosition.set(
       sprite.getWidth() / Configuration.Physics.WORLD_UNIT_TO_PIXELS * (size.width - 1) / 2f,
       sprite.getHeight() / Configuration.Physics.WORLD_UNIT_TO_PIXELS * (size.height - 1) / 2f
     );
@@ -166,7 +225,11 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
+  }
+
+  @Override
+  public void adjustPlayerContact(Player player, Contact contact) {
     Vector2 playerPos = player.getPhysicsPosition();
     Vector2 blockPos = this.getPhysicsPosition();
 
@@ -183,7 +246,7 @@ public class LevelBlockMoving extends LevelBlock implements ObjectMovable, CanHa
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
   }
 
   @Override
@@ -6,11 +6,12 @@ import com.badlogic.gdx.utils.JsonWriter;
 
 public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
 
-  public String getType() { return "switch-" + this.state.getLabel(); } 
+  public String getType() { return this.state.getLabel(); }
 
-  public enum SwitchState {
-    ON("on"),
-    OFF("off");
+  // the labels are the names of the regions of the states
+  public enum SwitchState implements Labeled {
+    ON("switch-on"),
+    OFF("switch-off");
 
     private String type;
 
@@ -24,6 +25,7 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
   }
 
   private SwitchState state = SwitchState.OFF;
+  private AtlasRegionTable<SwitchState> regions;
   private int door = 0;
   private LevelDoor doorRef = null;
 
@@ -32,7 +34,7 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
 
   public LevelBlockSwitch() {
     super();
-    this.type = "switch-off";
+    this.type = SwitchState.OFF.getLabel();
   }
 
   public LevelBlockSwitch(LevelBlockSwitch block) {
@@ -40,6 +42,9 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
 
     this.door = block.door;
     this.timeout = block.timeout;
+    this.regions = block.regions;
+
+    this.initPhysics();
   }
 
   public int getDoor() {
@@ -48,7 +53,7 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
 
   public void setState(SwitchState state) {
     this.state = state;
-    this.sprite.setRegion(textureAtlas.findRegion(this.getType()));
+    this.sprite.setRegion(this.regions.get(state));
 
     if(state == SwitchState.ON) {
       doorRef.increaseNumOpenersOn();
@@ -57,6 +62,13 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
     }
   }
 
+  @Override
+  public void postloadResources() throws ResourceLoader.NotPreloadedYetException {
+    super.postloadResources();
+
+    this.regions = new AtlasRegionTable<>(this.textureAtlas, SwitchState.class);
+  }
+
   public void setDoorRef(LevelDoor door) {
     this.doorRef = door;
   }
@@ -84,6 +96,12 @@ public class LevelBlockSwitch extends LevelBlock implements CanBeHitByBullet {
     return true;
   }
 
+  // the timer of the switch is counted by its own update
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return false;
+  }
+
   public void update(float deltaTime) {
     super.update(deltaTime);
 
@@ -28,7 +28,7 @@ public class LevelBonus extends LevelArtifact implements CanHandlePlayerContact,
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     if(this.getUsed()) {
       return;
     }
@@ -58,7 +58,7 @@ public class LevelBonus extends LevelArtifact implements CanHandlePlayerContact,
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     // do nothing, as soon as a bonus is touched by the player, it disappears
   }
 
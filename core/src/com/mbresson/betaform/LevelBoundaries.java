@@ -103,6 +103,8 @@ public class LevelBoundaries implements ResourceEater {
         break;
     }
 
+    CollisionCategory.BOUNDARY.applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -115,10 +117,13 @@ public class LevelBoundaries implements ResourceEater {
    * move it to stay inside its boundaries.
    */
   public void limitCamera(OrthographicCamera camera) {
-    Vector3 cameraPos = camera.position;
+    this.limitPosition(camera.position, Gdx.graphics.getWidth()/2, Gdx.graphics.getHeight()/2);
+  }
 
-    float windowHalfWidth = Gdx.graphics.getWidth()/2;
-    float windowHalfHeight = Gdx.graphics.getHeight()/2;
+  /**
+   * Moves the position so that a window of the given size centered on it stays inside the level.
+   */
+  public void limitPosition(Vector3 cameraPos, float windowHalfWidth, float windowHalfHeight) {
 
     float rightmostX = bodies.get(BoundaryType.RIGHT_WALL).getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
     float topmostY = bodies.get(BoundaryType.CEILING).getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
@@ -0,0 +1,66 @@
+package com.mbresson.betaform;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.physics.box2d.Body;
+
+/**
+ * The components of the entities of the level, see LevelEntities.
+ *
+ * A component refers to the same instances as the level object it is made from (body, sprite...)
+ * or is owned by the object itself (health, animation), so that the object and its entity never disagree.
+ */
+class LevelComponents {
+
+  public static class ObjectComponent extends Component {
+    public final LevelObject object;
+
+    public ObjectComponent(LevelObject object) {
+      this.object = object;
+    }
+  }
+
+  public static class BodyComponent extends Component {
+    public final Body body;
+
+    public BodyComponent(Body body) {
+      this.body = body;
+    }
+  }
+
+  public static class SpriteComponent extends Component {
+    public final Sprite sprite;
+
+    public SpriteComponent(Sprite sprite) {
+      this.sprite = sprite;
+    }
+  }
+
+  public static class AnimationComponent extends Component {
+    public SpriteAnimation animation;
+
+    // the animation is only played while the object moves
+    public boolean playing = false;
+  }
+
+  /**
+   * The object ticks, see LevelObject.scheduleTick: its tick state stays in the object.
+   */
+  public static class TickComponent extends Component {
+  }
+
+  public static class HealthComponent extends Component {
+    public int points;
+
+    public HealthComponent(int points) {
+      this.points = points;
+    }
+  }
+
+  public static final ComponentMapper<ObjectComponent> OBJECT = ComponentMapper.getFor(ObjectComponent.class);
+  public static final ComponentMapper<BodyComponent> BODY = ComponentMapper.getFor(BodyComponent.class);
+  public static final ComponentMapper<SpriteComponent> SPRITE = ComponentMapper.getFor(SpriteComponent.class);
+  public static final ComponentMapper<AnimationComponent> ANIMATION = ComponentMapper.getFor(AnimationComponent.class);
+  public static final ComponentMapper<HealthComponent> HEALTH = ComponentMapper.getFor(HealthComponent.class);
+}
@@ -3,8 +3,9 @@ package com.mbresson.betaform;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -14,7 +15,7 @@ public class LevelDoor extends LevelObject {
 
   private static final String classID = LevelDoor.class.getName();
 
-  public enum DoorState {
+  public enum DoorState implements Labeled {
     CLOSED("closed"),
     OPEN("open");
 
@@ -39,8 +40,12 @@ public class LevelDoor extends LevelObject {
   private int number;
 
   protected TextureAtlas textureAtlas;
+  protected AtlasRegionTable<DoorState> regions;
   protected Fixture bodyFixture;
 
+  // the area of the door given to the navigation graph
+  private Rectangle navBounds = new Rectangle();
+
   public LevelDoor() {
     super();
   }
@@ -52,7 +57,8 @@ public class LevelDoor extends LevelObject {
     this.state = door.state;
 
     this.textureAtlas = door.textureAtlas;
-    this.sprite = new Sprite(this.textureAtlas.findRegion(this.state.getLabel()));
+    this.regions = door.regions;
+    this.sprite = new Sprite(this.regions.get(this.state));
     this.sprite.setX(this.position.getX() + this.sprite.getWidth()/2);
     this.sprite.setY(this.position.getY() + this.sprite.getHeight()/2);
 
@@ -60,7 +66,7 @@ public class LevelDoor extends LevelObject {
     this.syncGraphicsFromPhysics();
   }
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     sprite.draw(batch);
   }
 
@@ -95,6 +101,8 @@ public class LevelDoor extends LevelObject {
     FixtureDef fixtureDef = new FixtureDef();
     fixtureDef.shape = shape;
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     bodyFixture = body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -102,16 +110,19 @@ public class LevelDoor extends LevelObject {
     this.syncGraphicsFromPhysics();
   }
 
+  // the update only moves the sprite to the body
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return true;
+  }
+
   @Override
   public void update(float deltaTime) {
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
   }
 
   public void setState(DoorState state) {
-    sprite.setRegion(textureAtlas.findRegion(state.getLabel()));
+    sprite.setRegion(this.regions.get(state));
     this.state = state;
   }
 
@@ -140,16 +151,32 @@ public class LevelDoor extends LevelObject {
 
   private void open() {
     this.state = DoorState.OPEN;
-    this.sprite.setRegion(textureAtlas.findRegion(this.state.getLabel()));
+    this.sprite.setRegion(this.regions.get(this.state));
 
     this.bodyFixture.setSensor(true);
+    this.patchNavGraph(false);
   }
 
   private void close() {
     this.state = DoorState.CLOSED;
-    this.sprite.setRegion(textureAtlas.findRegion(this.state.getLabel()));
+    this.sprite.setRegion(this.regions.get(this.state));
 
     this.bodyFixture.setSensor(false);
+    this.patchNavGraph(true);
+  }
+
+  public boolean isClosed() {
+    return this.state == DoorState.CLOSED;
+  }
+
+  // the enemies can walk through the door only when it is open
+  private void patchNavGraph(boolean blocked) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null || gameRef.getLevel().getNavPlanner() == null) {
+      return;
+    }
+
+    gameRef.getLevel().getNavPlanner().patch(this.getBounds(this.navBounds), blocked);
   }
 
   public int getNumber() {
@@ -172,8 +199,9 @@ public class LevelDoor extends LevelObject {
     AssetManager manager = ResourceLoader.getInstance().registerForPostloading(this.getResourceEaterID());
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
+    this.regions = new AtlasRegionTable<>(this.textureAtlas, DoorState.class);
 
-    this.sprite = new Sprite(this.textureAtlas.findRegion(this.state.getLabel()));
+    this.sprite = new Sprite(this.regions.get(this.state));
     this.sprite.setX(this.position.getX() + this.sprite.getWidth()/2);
     this.sprite.setY(this.position.getY() + this.sprite.getHeight()/2);
 
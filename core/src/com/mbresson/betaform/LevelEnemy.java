@@ -1,8 +1,9 @@
 package com.mbresson.betaform;
 
+import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.physics.box2d.*;
@@ -17,8 +18,12 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
 
   protected int getMaxHealth() { return 100; }
 
-  protected int health = this.getMaxHealth();
-  protected boolean moving = false;
+  // shared with the entity of the enemy, see LevelEntities
+  private LevelComponents.HealthComponent health = new LevelComponents.HealthComponent(this.getMaxHealth());
+  private LevelComponents.AnimationComponent animation = new LevelComponents.AnimationComponent();
+
+  // reused at each hit
+  private Vector2 impulse = new Vector2();
 
   protected Behavior behavior;
   protected Direction direction = Direction.LEFT;
@@ -30,9 +35,6 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
   protected float getAnimationStep() { return 1.0f / 5f; }
   protected BodyDef.BodyType getBodyType() { return BodyDef.BodyType.DynamicBody; }
 
-  private int regionIndex = getFirstRegionIndex();
-  private float regionTime = 0f;
-
   public int getStrength() { return 10; }
   
   public Direction getDirection() {
@@ -75,13 +77,15 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
     fixtureDef.restitution = 0f;
     this.body.setGravityScale(10f);
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = this.body.createFixture(fixtureDef);
     shape.dispose();
 
     this.syncGraphicsFromPhysics();
   }
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     if(direction == Direction.LEFT) {
       sprite.flip(true, false);
       sprite.draw(batch);
@@ -92,26 +96,39 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
   }
 
   public void update(float deltaTime) {
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
 
-    if(moving) {
-      regionTime += deltaTime;
-      if(regionTime > this.getAnimationStep()) {
-        regionIndex++;
+    if(this.animation.playing) {
+      GameInstance gameRef = Betaform.getGameRef();
+      if(gameRef != null) {
+        this.animation.animation.update(sprite, gameRef.getAnimationClock().getTime());
+      }
+    }
 
-        if(regionIndex > this.getLastRegionIndex()) {
-          regionIndex = this.getFirstRegionIndex();
-        }
+    this.scheduleTick(deltaTime);
+  }
 
-        sprite.setRegion(textureAtlas.findRegion(Integer.toString(regionIndex)));
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return true;
+  }
 
-        regionTime = 0f;
-      }
-    }
+  @Override
+  protected void addComponents(Entity entity) {
+    super.addComponents(entity);
+
+    entity.add(this.animation);
+    entity.add(this.health);
+    entity.add(new LevelComponents.TickComponent());
+  }
+
+  @Override
+  protected int getTickInterval() {
+    return this.behavior.getTickInterval();
+  }
 
+  @Override
+  protected void tick(float elapsed) {
     this.behavior.behave(this);
   }
 
@@ -124,20 +141,32 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
 
     this.direction = x < 0 ? Direction.LEFT : Direction.RIGHT;
 
-    this.moving = true;
+    this.animation.playing = true;
+  }
+
+  @Override
+  public Vector2 getPhysicsVelocity() {
+    return this.body.getLinearVelocity();
+  }
+
+  @Override
+  public boolean keepsVelocity() {
+    return this.getBodyType() == BodyDef.BodyType.KinematicBody;
   }
 
   @Override
   public void stop() {
-    this.moving = false;
+    this.animation.playing = false;
     resetAnimation();
   }
 
   private void resetAnimation() {
-    regionIndex = this.getFirstRegionIndex();
-    regionTime = 0f;
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return;
+    }
 
-    sprite.setRegion(textureAtlas.findRegion(Integer.toString(regionIndex)));
+    this.animation.animation.restart(sprite, gameRef.getAnimationClock().getTime());
   }
 
   @Override
@@ -147,17 +176,17 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
 
   @Override
   public boolean hitBy(BulletManager.Bullet bullet) {
-    this.health -= bullet.strength;
+    this.health.points -= bullet.getStrength();
 
     float yImpulse = this.getHeight()*2;
     float xImpulse = this.getWidth()*2;
 
-    if(bullet.direction == Direction.LEFT) {
+    if(bullet.getDirection() == Direction.LEFT) {
       xImpulse = -xImpulse;
     }
 
     this.body.applyLinearImpulse(
-      new Vector2(xImpulse, yImpulse),
+      this.impulse.set(xImpulse, yImpulse),
       this.body.getWorldCenter(),
       true
     );
@@ -169,7 +198,7 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
 
     gameRef.getBulletManager().destroyBullet(bullet);
 
-    if(this.health <= 0) {
+    if(this.health.points <= 0) {
       gameRef.getLevel().removeObject(this);
       return false;
     }
@@ -185,12 +214,12 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     player.hitBy(this);
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
   }
 
   @Override
@@ -209,11 +238,21 @@ abstract class LevelEnemy extends LevelObject implements ObjectMovable, CanBeHit
     AssetManager manager = ResourceLoader.getInstance().registerForPostloading(this.getResourceEaterID());
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
-    this.sprite = new Sprite(this.textureAtlas.findRegion(Integer.toString(this.getFirstRegionIndex())));
+
+    // all the enemies of the same type share the frames of their animation
+    this.animation.animation = new SpriteAnimation(SpriteAnimation.getAnimation(
+      this.textureAtlas, this.getFirstRegionIndex(), this.getLastRegionIndex(), this.getAnimationStep()
+    ));
+
+    this.sprite = new Sprite(this.animation.animation.getFirstFrame());
     this.sprite.setX(this.position.getX() + this.sprite.getWidth()/2);
     this.sprite.setY(this.position.getY() + this.sprite.getHeight()/2);
 
     this.initPhysics();
+
+    if(this.behavior != null) {
+      this.behavior.prepare();
+    }
   }
 
   @Override
@@ -13,6 +13,12 @@ public class LevelEnemySmartSheep extends LevelEnemy {
   @Override
   protected int getMaxHealth() { return 20; }
 
+  // unless the level gives it another behavior, the smart sheep chases the player
+  public LevelEnemySmartSheep() {
+    super();
+    this.behavior = new BehaviorChase();
+  }
+
   @Override
   public String getResourceEaterID() { return classID; }
 }
@@ -23,11 +23,23 @@ public class LevelEnemyTree extends LevelEnemy {
   @Override
   protected BodyDef.BodyType getBodyType() { return BodyDef.BodyType.StaticBody; }
 
+  // where the bullets are shot from, reused at each shot
+  private Vector2 shootingPosition = new Vector2();
+
+  // the shots are decided by its own tick
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return false;
+  }
+
   @Override
-  public void update(float deltaTime) {
-    super.update(deltaTime);
+  protected int getTickInterval() { return Configuration.AI.SHOOTER_TICK_INTERVAL; }
 
-    this.timeSincePreviousShoot += deltaTime;
+  @Override
+  protected void tick(float elapsed) {
+    super.tick(elapsed);
+
+    this.timeSincePreviousShoot += elapsed;
 
     float radiusY = this.sprite.getHeight() / Configuration.Physics.WORLD_UNIT_TO_PIXELS * 2;
 
@@ -43,17 +55,18 @@ public class LevelEnemyTree extends LevelEnemy {
 
     // the tree must face the player
     Direction direction = this.getDirectionToPlayer(player);
-    Vector2 position = new Vector2(
-      this.body.getPosition().x + (direction == Direction.LEFT ? -this.getWidth() : this.getWidth()),
-      enemyY
-    );
 
     // if the player is not too far from the tree (vertically), shoot bullets towards him
     if(Math.abs(enemyY - playerY) < radiusY) {
       if(this.timeSincePreviousShoot > this.shootingDelay) {
+        this.shootingPosition.set(
+          this.body.getPosition().x + (direction == Direction.LEFT ? -this.getWidth() : this.getWidth()),
+          enemyY
+        );
+
         gameRef.getBulletManager().newBullet(
           BulletManager.BulletType.ENEMY_BULLET,
-          position,
+          this.shootingPosition,
           direction,
           20
         );
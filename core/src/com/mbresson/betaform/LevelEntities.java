@@ -0,0 +1,151 @@
+package com.mbresson.betaform;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.utils.IdentityMap;
+
+/**
+ * The optional entity-component runtime of the level (see Configuration.Level.ENTITY_SYSTEMS).
+ *
+ * The objects whose update is only made of what the systems do (see LevelObject.isUpdatedBySystems)
+ * get an entity, and are then updated by the systems instead of their own update:
+ * each system goes through the entities having its components, whatever the class of their object.
+ * The systems call the same methods of the objects as their update (syncing the sprite, scheduling the ticks),
+ * so that both runtimes behave the same. The other objects are still updated by the level.
+ */
+class LevelEntities {
+
+  private Engine engine = new Engine();
+
+  private IdentityMap<LevelObject, Entity> entities = new IdentityMap<>();
+
+  public LevelEntities() {
+    this.engine.addSystem(new SpriteSystem(0));
+    this.engine.addSystem(new AnimationSystem(1));
+    this.engine.addSystem(new TickSystem(2));
+  }
+
+  /**
+   * Must be called once the object is postloaded, since it needs its body and sprite.
+   *
+   * @return true if the object is now updated by the systems
+   */
+  public boolean addObject(LevelObject object) {
+    if(!object.isUpdatedBySystems() || this.entities.containsKey(object)) {
+      return false;
+    }
+
+    Entity entity = new Entity();
+    entity.add(new LevelComponents.ObjectComponent(object));
+    object.addComponents(entity);
+
+    this.engine.addEntity(entity);
+    this.entities.put(object, entity);
+
+    return true;
+  }
+
+  public void removeObject(LevelObject object) {
+    Entity entity = this.entities.remove(object);
+
+    if(entity != null) {
+      this.engine.removeEntity(entity);
+    }
+  }
+
+  public boolean hasObject(LevelObject object) {
+    return this.entities.containsKey(object);
+  }
+
+  public void update(float deltaTime) {
+    this.engine.update(deltaTime);
+  }
+
+  public void dispose() {
+    this.engine.removeAllEntities();
+    this.entities.clear();
+  }
+
+  private static LevelObject getObject(Entity entity) {
+    return LevelComponents.OBJECT.get(entity).object;
+  }
+
+  private static boolean isActive(Entity entity) {
+    return getObject(entity).isActive();
+  }
+
+  /**
+   * Moves the sprites to their bodies.
+   */
+  private static class SpriteSystem extends IteratingSystem {
+
+    @SuppressWarnings("unchecked")
+    public SpriteSystem(int priority) {
+      super(Family.getFor(
+        LevelComponents.ObjectComponent.class, LevelComponents.BodyComponent.class, LevelComponents.SpriteComponent.class
+      ), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+      if(!isActive(entity)) {
+        return;
+      }
+
+      getObject(entity).syncGraphicsFromPhysics();
+    }
+  }
+
+  /**
+   * Shows the current frame of the animations being played.
+   */
+  private static class AnimationSystem extends IteratingSystem {
+
+    @SuppressWarnings("unchecked")
+    public AnimationSystem(int priority) {
+      super(Family.getFor(
+        LevelComponents.ObjectComponent.class, LevelComponents.SpriteComponent.class, LevelComponents.AnimationComponent.class
+      ), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+      LevelComponents.AnimationComponent animation = LevelComponents.ANIMATION.get(entity);
+
+      if(!animation.playing || !isActive(entity)) {
+        return;
+      }
+
+      GameInstance gameRef = Betaform.getGameRef();
+      if(gameRef == null || gameRef.getAnimationClock() == null) {
+        return;
+      }
+
+      animation.animation.update(LevelComponents.SPRITE.get(entity).sprite, gameRef.getAnimationClock().getTime());
+    }
+  }
+
+  /**
+   * Runs the ticks of the objects when they are due, see LevelObject.scheduleTick.
+   */
+  private static class TickSystem extends IteratingSystem {
+
+    @SuppressWarnings("unchecked")
+    public TickSystem(int priority) {
+      super(Family.getFor(
+        LevelComponents.ObjectComponent.class, LevelComponents.TickComponent.class
+      ), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+      if(!isActive(entity)) {
+        return;
+      }
+
+      getObject(entity).scheduleTick(deltaTime);
+    }
+  }
+}
@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.physics.box2d.*;
 
@@ -20,7 +20,7 @@ abstract class LevelHelper extends LevelObject implements Traversable {
 
   public abstract String getType();
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     sprite.draw(batch);
   }
 
@@ -72,6 +72,8 @@ abstract class LevelHelper extends LevelObject implements Traversable {
     fixtureDef.density = 1f;
     fixtureDef.isSensor = true; // traversable
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
 
     shape.dispose();
@@ -79,12 +81,15 @@ abstract class LevelHelper extends LevelObject implements Traversable {
     this.syncGraphicsFromPhysics();
   }
 
+  // the update only moves the sprite to the body
+  @Override
+  protected boolean isUpdatedBySystems() {
+    return true;
+  }
+
   @Override
   public void update(float deltaTime) {
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
   }
 
   @Override
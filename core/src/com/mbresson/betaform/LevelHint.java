@@ -5,7 +5,7 @@ import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
@@ -52,7 +52,7 @@ public class LevelHint extends LevelHelper implements LevelInteractable {
     super(hint);
   }
 
-  public void displayInteraction(SpriteBatch batch) {
+  public void displayInteraction(Batch batch) {
     if(textIndex == text.size) {
       return;
     }
@@ -125,12 +125,12 @@ public class LevelHint extends LevelHelper implements LevelInteractable {
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     player.addInteractable(this);
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     player.removeInteractable(this);
     this.reset();
   }
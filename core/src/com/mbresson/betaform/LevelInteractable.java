@@ -1,6 +1,6 @@
 package com.mbresson.betaform;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 
 /**
  * LevelInteractable objects can be interacted with when
@@ -18,7 +18,7 @@ interface LevelInteractable extends CanHandlePlayerContact {
   /**
    * Must be called every frame.
    */
-  public void displayInteraction(SpriteBatch batch);
+  public void displayInteraction(Batch batch);
 
   /**
    * Reset the state of the interactable object.
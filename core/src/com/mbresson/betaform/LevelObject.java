@@ -1,8 +1,10 @@
 package com.mbresson.betaform;
 
+import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -12,7 +14,7 @@ import com.badlogic.gdx.utils.JsonWriter;
  * Represents any kind of displayable object
  * which the player can interact with (even the player itself).
  */
-public class LevelObject implements ResourceEater, Json.Serializable, Editable {
+public class LevelObject implements ResourceEater, Json.Serializable, Editable, Destructible {
 
   private static final String classID = LevelObject.class.getName();
 
@@ -26,6 +28,31 @@ public class LevelObject implements ResourceEater, Json.Serializable, Editable {
   protected Body body;
   protected Sprite sprite;
 
+  /**
+   * Position of the physical body before the last physics step.
+   * The sprite is drawn between this position and the current one,
+   * see {@link #interpolate(float)}.
+   */
+  protected Vector2 previousPhysicsPosition = new Vector2();
+
+  /**
+   * An inactive object is too far from the player to matter:
+   * its body is removed from the simulation and it isn't updated.
+   */
+  protected boolean active = true;
+
+  // objects with a lower order are drawn first, see Level.display
+  private int displayOrder = 0;
+
+  // the index of the object in the objects of the level, -1 if it is not in a level
+  private int levelIndex = -1;
+
+  // the step at which the object ticks among its interval, -1 until it is given one, see UpdateScheduler
+  private int tickPhase = -1;
+
+  // the time elapsed since the previous tick
+  private float timeSinceTick = 0f;
+
   protected String getPath() {
     return "";
   }
@@ -74,6 +101,46 @@ public class LevelObject implements ResourceEater, Json.Serializable, Editable {
     return this.sprite.getHeight() / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
   }
 
+  /**
+   * @param bounds set to the rectangle covered by the object, in pixels
+   * @return bounds
+   */
+  public Rectangle getBounds(Rectangle bounds) {
+    float width = this.sprite == null ? 0 : this.sprite.getWidth();
+    float height = this.sprite == null ? 0 : this.sprite.getHeight();
+
+    if(this.body == null) {
+      return bounds.set(this.position.getX(), this.position.getY(), width, height);
+    }
+
+    return bounds.set(
+      this.body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS - width/2,
+      this.body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS - height/2,
+      width,
+      height
+    );
+  }
+
+  /**
+   * @return the category of the fixtures of the object, see CollisionCategory
+   */
+  protected CollisionCategory getCollisionCategory() {
+    LevelObjectType type = LevelObjectType.forClass(this.getClass());
+
+    if(type == null) {
+      throw new IllegalArgumentException("No collision category for the class " + this.getClass().getName());
+    }
+
+    return type.getCollisionCategory();
+  }
+
+  /**
+   * @return true if the object can move, so that its place in the spatial grid of the level must be updated
+   */
+  public boolean isMobile() {
+    return this.body != null && this.body.getType() != BodyDef.BodyType.StaticBody;
+  }
+
   public float getDistanceToObject(LevelObject object) {
     return this.body.getPosition().dst(object.body.getPosition());
   }
@@ -81,13 +148,87 @@ public class LevelObject implements ResourceEater, Json.Serializable, Editable {
   /**
    * Must be called at each frame
    */
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     // nothing!
   }
 
   public void update(float deltaTime) {
   }
 
+  /**
+   * @return true if the update of the object is only made of what the systems of LevelEntities do
+   * with the components given by {@link #addComponents(Entity)}, so that it can be left to them
+   */
+  protected boolean isUpdatedBySystems() {
+    return false;
+  }
+
+  /**
+   * Adds to the entity of the object the components which make up its update, see LevelEntities.
+   */
+  protected void addComponents(Entity entity) {
+    entity.add(new LevelComponents.BodyComponent(this.body));
+    entity.add(new LevelComponents.SpriteComponent(this.sprite));
+  }
+
+  /**
+   * @return the number of physics steps between two calls to {@link #tick(float)}
+   */
+  protected int getTickInterval() {
+    return 1;
+  }
+
+  /**
+   * The thinking part of the update, run only every {@link #getTickInterval()} steps.
+   *
+   * @param elapsed the time elapsed since the previous tick
+   */
+  protected void tick(float elapsed) {
+  }
+
+  /**
+   * Runs {@link #tick(float)} if it is due at this step,
+   * must be called by the update of the objects which tick.
+   */
+  protected void scheduleTick(float deltaTime) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return;
+    }
+
+    UpdateScheduler scheduler = gameRef.getUpdateScheduler();
+    if(scheduler == null) {
+      return;
+    }
+
+    int interval = this.getTickInterval();
+    if(this.tickPhase == -1) {
+      this.tickPhase = scheduler.nextPhase(interval);
+    }
+
+    this.timeSinceTick += deltaTime;
+
+    if(!scheduler.isDue(interval, this.tickPhase)) {
+      return;
+    }
+
+    long start = scheduler.beginTick();
+    this.tick(this.timeSinceTick);
+    scheduler.endTick(this.getClass(), start);
+
+    this.timeSinceTick = 0f;
+  }
+
+  @Override
+  public boolean destroy() {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return false;
+    }
+
+    return gameRef.getLevel().destroyLevelObject(this);
+  }
+
   public void dispose() {
     GameInstance gameRef = Betaform.getGameRef();
     if(gameRef == null) {
@@ -97,10 +238,97 @@ public class LevelObject implements ResourceEater, Json.Serializable, Editable {
     gameRef.getWorld().destroyBody(this.body);
   }
 
+  int getLevelIndex() {
+    return this.levelIndex;
+  }
+
+  void setLevelIndex(int levelIndex) {
+    this.levelIndex = levelIndex;
+  }
+
+  public int getDisplayOrder() {
+    return this.displayOrder;
+  }
+
+  public void setDisplayOrder(int displayOrder) {
+    this.displayOrder = displayOrder;
+  }
+
+  public boolean isActive() {
+    return this.active;
+  }
+
+  /**
+   * Must not be called during a physics step.
+   */
+  public void setActive(boolean active) {
+    this.active = active;
+
+    if(this.body != null) {
+      this.body.setActive(active);
+    }
+  }
+
+  /**
+   * Activates the object if its center is in the wake region,
+   * deactivates it if its center is out of the sleep region.
+   *
+   * The sleep region is larger than the wake region,
+   * so that an object moving on the edge doesn't keep waking up and falling asleep.
+   */
+  public void updateActivity(Rectangle wakeRegion, Rectangle sleepRegion) {
+    if(this.body == null) {
+      return;
+    }
+
+    float x = this.body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float y = this.body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    if(this.active) {
+      if(!sleepRegion.contains(x, y)) {
+        this.setActive(false);
+      }
+    } else if(wakeRegion.contains(x, y)) {
+      this.setActive(true);
+    }
+  }
+
   public Vector2 getPhysicsPosition() {
     return this.body.getPosition();
   }
 
+  /**
+   * Must be called before each physics step.
+   */
+  public void savePhysicsState() {
+    if(this.body == null) {
+      return;
+    }
+
+    this.previousPhysicsPosition.set(this.body.getPosition());
+  }
+
+  /**
+   * Moves the sprite between the previous and the current physics positions.
+   *
+   * @param alpha 0 for the previous position, 1 for the current one
+   */
+  public void interpolate(float alpha) {
+    if(this.body == null || this.sprite == null) {
+      return;
+    }
+
+    Vector2 currentPosition = this.body.getPosition();
+
+    float x = this.previousPhysicsPosition.x + (currentPosition.x - this.previousPhysicsPosition.x) * alpha;
+    float y = this.previousPhysicsPosition.y + (currentPosition.y - this.previousPhysicsPosition.y) * alpha;
+
+    sprite.setPosition(
+      (x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
+      (y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
+    );
+  }
+
   /**
    * Each extending class will have to implements this method itself
    * since LevelObject doesn't hold much information about graphics itself.
@@ -44,5 +44,41 @@ enum LevelObjectType {
 
     throw new IllegalArgumentException("No class for the object type named " + this.type);
   }
+
+  /**
+   * @return the category of the fixtures of the objects of this type, see CollisionCategory
+   */
+  public CollisionCategory getCollisionCategory() {
+    switch(this) {
+      case BLOCK_MOVING: return CollisionCategory.BLOCK;
+      case BLOCK_MOVABLE: return CollisionCategory.BLOCK;
+      case ADDON: return CollisionCategory.PICKUP;
+      case BONUS: return CollisionCategory.PICKUP;
+      case DOOR: return CollisionCategory.DOOR;
+      case SWITCH: return CollisionCategory.BLOCK;
+      case SAVE: return CollisionCategory.HELPER;
+      case HINT: return CollisionCategory.HELPER;
+      case ROBOT_LION: return CollisionCategory.ENEMY;
+      case ROBOT_SHEEP: return CollisionCategory.ENEMY;
+      case ROBOT_SHEEP_SMART: return CollisionCategory.ENEMY;
+      case ROBOT_TREE: return CollisionCategory.ENEMY;
+      case ROBOT_TRIPOD: return CollisionCategory.ENEMY;
+    }
+
+    throw new IllegalArgumentException("No collision category for the object type named " + this.type);
+  }
+
+  /**
+   * @return the type whose objects are of this class, or null if there is none (e.g. the player)
+   */
+  public static LevelObjectType forClass(Class<? extends LevelObject> objectClass) {
+    for(LevelObjectType type: values()) {
+      if(type.getLevelObjectClass() == objectClass) {
+        return type;
+      }
+    }
+
+    return null;
+  }
 }
 
@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.physics.box2d.*;
 
@@ -39,23 +39,28 @@ public class LevelPortal extends LevelObject implements ResourceEater, Traversab
     this.type = type;
   }
 
+  @Override
+  protected CollisionCategory getCollisionCategory() {
+    return CollisionCategory.PORTAL;
+  }
+
   public PortalType getType() {
     return this.type;
   }
 
-  public void display(SpriteBatch batch) {
+  public void display(Batch batch) {
     sprite.draw(batch);
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     if(this.getType() == LevelPortal.PortalType.EXIT) {
       player.increasePartsInsideExitPortal();
     }
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     if(this.getType() == LevelPortal.PortalType.EXIT) {
       player.decreasePartsInsideExitPortal();
     }
@@ -94,6 +99,8 @@ public class LevelPortal extends LevelObject implements ResourceEater, Traversab
     fixtureDef.density = 1f;
     fixtureDef.isSensor = true; // traversable
 
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
 
     shape.dispose();
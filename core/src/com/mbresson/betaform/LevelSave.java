@@ -1,7 +1,7 @@
 package com.mbresson.betaform;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.physics.box2d.*;
 
 /**
@@ -24,7 +24,7 @@ public class LevelSave extends LevelHelper implements LevelInteractable {
     super(save);
   }
 
-  public void displayInteraction(SpriteBatch batch) {
+  public void displayInteraction(Batch batch) {
   }
 
   public void reset() {
@@ -48,12 +48,12 @@ public class LevelSave extends LevelHelper implements LevelInteractable {
   }
 
   @Override
-  public void handlePlayerContactBegin(Player player, Contact contact) {
+  public void handlePlayerContactBegin(Player player) {
     player.addInteractable(this);
   }
 
   @Override
-  public void handlePlayerContactEnd(Player player, Contact contact) {
+  public void handlePlayerContactEnd(Player player) {
     player.removeInteractable(this);
     this.reset();
   }
@@ -1,5 +1,6 @@
 package com.mbresson.betaform;
 
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.Json;
@@ -19,7 +20,7 @@ public class LevelTile implements CanBeHitByBullet, Json.Serializable, Editable
     return height;
   }
 
-  public static enum TileType {
+  public static enum TileType implements Labeled {
     NORMAL("normal"),
     BOUNCY("bouncy");
 
@@ -74,28 +75,64 @@ public class LevelTile implements CanBeHitByBullet, Json.Serializable, Editable
     this.load(tile.getSpriteSize());
   }
 
-  private Vector2 getSpriteSize() {
+  Vector2 getSpriteSize() {
     return this.spriteSize;
   }
 
   private String type = TileType.NORMAL.getLabel();
+
+  // the type is read as a string from the level file, and only looked up once
+  private TileType cachedType;
   private Vector2 spriteSize = new Vector2();
 
   public TileType getType() {
-    return TileType.findByName(this.type);
+    if(this.cachedType == null) {
+      this.cachedType = TileType.findByName(this.type);
+    }
+
+    return this.cachedType;
+  }
+
+  public int getX() {
+    return this.x;
+  }
+
+  public int getY() {
+    return this.y;
+  }
+
+  /**
+   * @param bounds set to the rectangle covered by all the blocks of the tile, in pixels
+   * @return bounds
+   */
+  public Rectangle getBounds(Rectangle bounds) {
+    return bounds.set(
+      this.x,
+      this.y,
+      this.spriteSize.x * this.width,
+      this.spriteSize.y * this.height
+    );
   }
 
   public Vector2 getPhysicsPosition() {
     return body.getPosition();
   }
 
+  /**
+   * Sets the size of a block without creating the physical body,
+   * used for the tiles of a level whose bodies are built by LevelTileGeometry.
+   */
+  public void setSpriteSize(Vector2 spriteSize) {
+    this.spriteSize = new Vector2(spriteSize);
+  }
+
   /**
    * Since, for the tiles, physics and graphics are decoupled,
    * we need to pass the size of the graphics object to this method
    * to compute its physical size.
    */
   public void load(Vector2 spriteSize) {
-    this.spriteSize = new Vector2(spriteSize);
+    this.setSpriteSize(spriteSize);
 
     float spriteWidth = spriteSize.x;
     float spriteHeight = spriteSize.y;
@@ -135,6 +172,8 @@ public class LevelTile implements CanBeHitByBullet, Json.Serializable, Editable
     fixtureDef.density = 1f;
     fixtureDef.friction = 0.1f;
 
+    CollisionCategory.TILE.applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
     fixture.setUserData(this);
 
@@ -147,7 +186,7 @@ public class LevelTile implements CanBeHitByBullet, Json.Serializable, Editable
   @Override
   public boolean hitBy(BulletManager.Bullet bullet) {
     // bouncy tiles make the bullet change direction
-    if(this.type.equals(TileType.BOUNCY.getLabel())) {
+    if(this.getType() == TileType.BOUNCY) {
       bullet.invertDirection();
     } else {
       GameInstance gameRef = Betaform.getGameRef();
@@ -0,0 +1,266 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * The tiles never move during the game, so instead of building their vertices at each frame,
+ * they are sent once to the graphics card in a SpriteCache.
+ *
+ * The level is cut in square chunks of Configuration.Level.TILE_CACHE_CHUNK_SIZE blocks,
+ * each one stored in its own cache so that only the visible chunks are drawn.
+ * A block belongs to the chunk which contains its bottom left corner.
+ *
+ * The caches are created on the first display, because they need OpenGL.
+ * When the editor adds a tile, only the chunks it covers are rebuilt.
+ */
+class LevelTileCache implements Disposable {
+
+  private static class Chunk {
+    int x, y;
+
+    // -1 while the chunk has no cache
+    int cacheID = -1;
+
+    // a cache can't be rebuilt with more blocks than it had when it was created
+    int maxBlocks = 0;
+
+    boolean dirty = true;
+  }
+
+  private final Level level;
+  private final LevelTileDisplayer tileDisplayer;
+
+  private final float chunkWidth = Configuration.Level.TILE_CACHE_CHUNK_SIZE * Configuration.Level.TILE_WIDTH;
+  private final float chunkHeight = Configuration.Level.TILE_CACHE_CHUNK_SIZE * Configuration.Level.TILE_HEIGHT;
+
+  private SpriteCache cache;
+  private int capacity = 0, usedCapacity = 0;
+  private boolean rebuildAll = true;
+
+  private LongMap<Chunk> chunks = new LongMap<>();
+
+  private Rectangle chunkArea = new Rectangle();
+  private Array<LevelTile> chunkTiles = new Array<>(50);
+
+  public LevelTileCache(Level level, LevelTileDisplayer tileDisplayer) {
+    this.level = level;
+    this.tileDisplayer = tileDisplayer;
+  }
+
+  private static long getChunkKey(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+  }
+
+  private int getChunkX(float x) {
+    return (int) Math.floor(x / this.chunkWidth);
+  }
+
+  private int getChunkY(float y) {
+    return (int) Math.floor(y / this.chunkHeight);
+  }
+
+  private Chunk getChunk(int chunkX, int chunkY) {
+    long key = getChunkKey(chunkX, chunkY);
+
+    Chunk chunk = this.chunks.get(key);
+    if(chunk == null) {
+      chunk = new Chunk();
+      chunk.x = chunkX;
+      chunk.y = chunkY;
+      this.chunks.put(key, chunk);
+    }
+
+    return chunk;
+  }
+
+  /**
+   * Must be called when a tile is added, so that the chunks it covers are rebuilt before the next display.
+   */
+  public void invalidate(LevelTile tile) {
+    Rectangle bounds = tile.getBounds(this.chunkArea);
+
+    int lastChunkX = this.getChunkX(bounds.x + bounds.width);
+    int lastChunkY = this.getChunkY(bounds.y + bounds.height);
+
+    for(int chunkX = this.getChunkX(bounds.x); chunkX <= lastChunkX; chunkX++) {
+      for(int chunkY = this.getChunkY(bounds.y); chunkY <= lastChunkY; chunkY++) {
+        this.getChunk(chunkX, chunkY).dirty = true;
+      }
+    }
+  }
+
+  /**
+   * Draws the chunks in the area, must be called out of any SpriteBatch begin/end.
+   *
+   * @param area in pixels, must include the blocks which start out of the visible area but end inside it
+   */
+  public void display(OrthographicCamera camera, Rectangle area) {
+    if(this.rebuildAll) {
+      this.buildAll();
+    } else {
+      this.buildDirtyChunks();
+    }
+
+    this.cache.setProjectionMatrix(camera.combined);
+
+    // SpriteCache doesn't manage blending itself
+    Gdx.gl.glEnable(GL20.GL_BLEND);
+    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+    this.cache.begin();
+
+    int lastChunkX = this.getChunkX(area.x + area.width);
+    int lastChunkY = this.getChunkY(area.y + area.height);
+
+    for(int chunkX = this.getChunkX(area.x); chunkX <= lastChunkX; chunkX++) {
+      for(int chunkY = this.getChunkY(area.y); chunkY <= lastChunkY; chunkY++) {
+        Chunk chunk = this.chunks.get(getChunkKey(chunkX, chunkY));
+
+        if(chunk != null && chunk.cacheID != -1) {
+          this.cache.draw(chunk.cacheID);
+        }
+      }
+    }
+
+    this.cache.end();
+
+    Gdx.gl.glDisable(GL20.GL_BLEND);
+  }
+
+  private void buildAll() {
+    this.chunks.clear();
+
+    for(LevelTile tile: this.level.getTiles()) {
+      this.invalidate(tile);
+    }
+
+    int blocks = 0;
+    for(Chunk chunk: this.chunks.values()) {
+      blocks += this.addChunkBlocks(chunk, false);
+    }
+
+    // some room is kept for the tiles added by the editor
+    int neededCapacity = blocks + blocks / 2 + 64;
+
+    if(this.cache == null || neededCapacity > this.capacity) {
+      if(this.cache != null) {
+        this.cache.dispose();
+      }
+
+      this.cache = new SpriteCache(neededCapacity, false);
+      this.capacity = neededCapacity;
+    } else {
+      this.cache.clear();
+    }
+
+    this.usedCapacity = 0;
+
+    for(Chunk chunk: this.chunks.values()) {
+      chunk.cacheID = -1;
+      chunk.maxBlocks = 0;
+      this.buildChunk(chunk, this.addChunkBlocks(chunk, false));
+    }
+
+    this.rebuildAll = false;
+  }
+
+  private void buildDirtyChunks() {
+    for(Chunk chunk: this.chunks.values()) {
+      if(!chunk.dirty) {
+        continue;
+      }
+
+      int blocks = this.addChunkBlocks(chunk, false);
+
+      boolean fits = chunk.cacheID == -1 ?
+        this.usedCapacity + blocks <= this.capacity :
+        blocks <= chunk.maxBlocks;
+
+      if(!fits) {
+        this.buildAll();
+        return;
+      }
+
+      this.buildChunk(chunk, blocks);
+    }
+  }
+
+  private void buildChunk(Chunk chunk, int blocks) {
+    chunk.dirty = false;
+
+    if(chunk.cacheID == -1) {
+      if(blocks == 0) {
+        return;
+      }
+
+      this.cache.beginCache();
+      this.addChunkBlocks(chunk, true);
+      chunk.cacheID = this.cache.endCache();
+      chunk.maxBlocks = blocks;
+      this.usedCapacity += blocks;
+    } else {
+      this.cache.beginCache(chunk.cacheID);
+      this.addChunkBlocks(chunk, true);
+      this.cache.endCache();
+    }
+  }
+
+  /**
+   * @param add if false, the blocks are only counted
+   * @return the number of blocks in the chunk
+   */
+  private int addChunkBlocks(Chunk chunk, boolean add) {
+    float left = chunk.x * this.chunkWidth;
+    float bottom = chunk.y * this.chunkHeight;
+    float right = left + this.chunkWidth;
+    float top = bottom + this.chunkHeight;
+
+    this.chunkArea.set(left, bottom, this.chunkWidth, this.chunkHeight);
+    this.chunkTiles.clear();
+    this.level.queryTiles(this.chunkArea, this.chunkTiles);
+
+    int blocks = 0;
+
+    for(LevelTile tile: this.chunkTiles) {
+      TextureRegion region = this.tileDisplayer.getRegion(tile.getType());
+      float blockWidth = region.getRegionWidth();
+      float blockHeight = region.getRegionHeight();
+
+      // only the blocks whose bottom left corner is inside the chunk
+      int firstBlockX = Math.max(0, (int) Math.ceil((left - tile.getX()) / blockWidth));
+      int lastBlockX = Math.min(tile.getNumberOfHorizontalBlocks(), (int) Math.ceil((right - tile.getX()) / blockWidth)) - 1;
+      int firstBlockY = Math.max(0, (int) Math.ceil((bottom - tile.getY()) / blockHeight));
+      int lastBlockY = Math.min(tile.getNumberOfVerticalBlocks(), (int) Math.ceil((top - tile.getY()) / blockHeight)) - 1;
+
+      for(int i = firstBlockX; i <= lastBlockX; i++) {
+        for(int j = firstBlockY; j <= lastBlockY; j++) {
+          if(add) {
+            this.cache.add(region, tile.getX() + i * blockWidth, tile.getY() + j * blockHeight);
+          }
+
+          blocks++;
+        }
+      }
+    }
+
+    return blocks;
+  }
+
+  @Override
+  public void dispose() {
+    if(this.cache != null) {
+      this.cache.dispose();
+      this.cache = null;
+    }
+
+    this.rebuildAll = true;
+  }
+}
@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -18,18 +18,26 @@ public class LevelTileDisplayer implements ResourceEater {
   private String getPath() { return "img/sprites/tiles.atlas"; }
 
   private TextureAtlas textureAtlas;
+  private AtlasRegionTable<LevelTile.TileType> regions;
   private Sprite sprite;
 
   public Vector2 getSpriteSizeForTile(LevelTile.TileType type) {
-    TextureRegion region = textureAtlas.findRegion(type.getLabel());
+    TextureRegion region = this.regions.get(type);
     return new Vector2(
       region.getRegionWidth(),
       region.getRegionHeight()
     );
   }
 
-  public void display(SpriteBatch batch, LevelTile tile) {
-    sprite.setRegion(textureAtlas.findRegion(tile.getType().getLabel()));
+  public TextureRegion getRegion(LevelTile.TileType type) {
+    return this.regions.get(type);
+  }
+
+  /**
+   * Draws a single tile, the tiles of the level are drawn by LevelTileCache.
+   */
+  public void display(Batch batch, LevelTile tile) {
+    sprite.setRegion(this.regions.get(tile.getType()));
 
     Vector2 physicsPosition = tile.getPhysicsPosition();
 
@@ -68,7 +76,8 @@ public class LevelTileDisplayer implements ResourceEater {
     AssetManager manager = ResourceLoader.getInstance().registerForPostloading(this.getResourceEaterID());
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
-    this.sprite = new Sprite(this.textureAtlas.findRegion(LevelTile.TileType.NORMAL.getLabel()));
+    this.regions = new AtlasRegionTable<>(this.textureAtlas, LevelTile.TileType.class);
+    this.sprite = new Sprite(this.regions.get(LevelTile.TileType.NORMAL));
   }
 
   @Override
@@ -0,0 +1,195 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Builds the physical bodies of the tiles of a level.
+ *
+ * Instead of one body per tile, the blocks of all the tiles of a same type
+ * are merged into rectangles as big as possible, all attached to one static body per type.
+ * This makes far less bodies for the physics engine to handle,
+ * and the player doesn't get stuck on the seams between two tiles anymore.
+ *
+ * The body and its fixtures hold a LevelTile of the right type as user data,
+ * so that the contacts (feet, bullets bouncing on bouncy tiles) work as with separate tiles.
+ */
+class LevelTileGeometry {
+
+  private LevelTileGeometry() {
+  }
+
+  /**
+   * The tiles must know their sprite size (see LevelTile.setSpriteSize).
+   *
+   * @return the number of rectangles created
+   */
+  public static int build(Array<LevelTile> tiles) {
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return 0;
+    }
+
+    int rectangles = 0;
+
+    for(LevelTile.TileType type: LevelTile.TileType.values()) {
+      Array<LevelTile> tilesOfType = new Array<>(tiles.size);
+      for(LevelTile tile: tiles) {
+        if(tile.getType() == type) {
+          tilesOfType.add(tile);
+        }
+      }
+
+      if(tilesOfType.size == 0) {
+        continue;
+      }
+
+      rectangles += buildType(gameRef.getWorld(), type, tilesOfType);
+    }
+
+    return rectangles;
+  }
+
+  private static int buildType(World world, LevelTile.TileType type, Array<LevelTile> tiles) {
+    LevelTile userData = new LevelTile(type);
+
+    BodyDef bodyDef = new BodyDef();
+    bodyDef.type = BodyDef.BodyType.StaticBody;
+    bodyDef.position.set(0, 0);
+
+    Body body = world.createBody(bodyDef);
+    body.setUserData(userData);
+
+    // all the tiles of a type have the same block size
+    float blockWidth = tiles.first().getSpriteSize().x;
+    float blockHeight = tiles.first().getSpriteSize().y;
+
+    /*
+     * Put the blocks on a grid, the tiles which are not aligned on it
+     * (which the editor doesn't create) keep their own rectangle.
+     */
+    int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+    int rectangles = 0;
+
+    Array<LevelTile> alignedTiles = new Array<>(tiles.size);
+
+    for(LevelTile tile: tiles) {
+      if(tile.getX() % blockWidth != 0 || tile.getY() % blockHeight != 0) {
+        addRectangle(body, userData,
+          tile.getX(), tile.getY(),
+          blockWidth * tile.getNumberOfHorizontalBlocks(), blockHeight * tile.getNumberOfVerticalBlocks()
+        );
+        rectangles++;
+        continue;
+      }
+
+      int cellX = (int)(tile.getX() / blockWidth);
+      int cellY = (int)(tile.getY() / blockHeight);
+
+      minX = Math.min(minX, cellX);
+      minY = Math.min(minY, cellY);
+      maxX = Math.max(maxX, cellX + tile.getNumberOfHorizontalBlocks());
+      maxY = Math.max(maxY, cellY + tile.getNumberOfVerticalBlocks());
+
+      alignedTiles.add(tile);
+    }
+
+    if(alignedTiles.size == 0) {
+      return rectangles;
+    }
+
+    int width = maxX - minX;
+    int height = maxY - minY;
+
+    boolean[][] filled = new boolean[width][height];
+
+    for(LevelTile tile: alignedTiles) {
+      int cellX = (int)(tile.getX() / blockWidth) - minX;
+      int cellY = (int)(tile.getY() / blockHeight) - minY;
+
+      for(int i = 0; i < tile.getNumberOfHorizontalBlocks(); i++) {
+        for(int j = 0; j < tile.getNumberOfVerticalBlocks(); j++) {
+          filled[cellX + i][cellY + j] = true;
+        }
+      }
+    }
+
+    /*
+     * Greedy merge: from each free block (bottom to top, left to right),
+     * take the longest horizontal run, then grow it upwards as long as the whole run is filled.
+     */
+    for(int y = 0; y < height; y++) {
+      for(int x = 0; x < width; x++) {
+        if(!filled[x][y]) {
+          continue;
+        }
+
+        int runWidth = 1;
+        while(x + runWidth < width && filled[x + runWidth][y]) {
+          runWidth++;
+        }
+
+        int runHeight = 1;
+        growing:
+        while(y + runHeight < height) {
+          for(int i = 0; i < runWidth; i++) {
+            if(!filled[x + i][y + runHeight]) {
+              break growing;
+            }
+          }
+
+          runHeight++;
+        }
+
+        for(int i = 0; i < runWidth; i++) {
+          for(int j = 0; j < runHeight; j++) {
+            filled[x + i][y + j] = false;
+          }
+        }
+
+        addRectangle(body, userData,
+          (minX + x) * blockWidth, (minY + y) * blockHeight,
+          runWidth * blockWidth, runHeight * blockHeight
+        );
+        rectangles++;
+      }
+    }
+
+    return rectangles;
+  }
+
+  /**
+   * @param x the left of the rectangle, in pixels
+   * @param y the bottom of the rectangle, in pixels
+   */
+  private static void addRectangle(Body body, LevelTile userData, float x, float y, float width, float height) {
+    float halfWidth = (width/2) / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float halfHeight = (height/2) / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    PolygonShape shape = new PolygonShape();
+    shape.setAsBox(
+      halfWidth,
+      halfHeight,
+      new Vector2(
+        x / Configuration.Physics.WORLD_UNIT_TO_PIXELS + halfWidth,
+        y / Configuration.Physics.WORLD_UNIT_TO_PIXELS + halfHeight
+      ),
+      0
+    );
+
+    // same as LevelTile.load
+    FixtureDef fixtureDef = new FixtureDef();
+    fixtureDef.shape = shape;
+    fixtureDef.density = 1f;
+    fixtureDef.friction = 0.1f;
+
+    CollisionCategory.TILE.applyTo(fixtureDef.filter);
+
+    Fixture fixture = body.createFixture(fixtureDef);
+    fixture.setUserData(userData);
+
+    shape.dispose();
+  }
+}
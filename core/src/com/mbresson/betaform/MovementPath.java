@@ -0,0 +1,140 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The moves of a BehaviorAutomated, compiled once into segments of constant velocity.
+ *
+ * A move (x, y) in pixels is done at the speed of the behavior, one step of speed per physics step,
+ * each axis stopping when its distance is covered: so it gives at most three segments,
+ * both axes moving, then only the longest one, then a step at rest before the next move.
+ *
+ * A path is immutable and shared by all the behaviors having the same speed and moves (see get),
+ * which only keep their own cursor (see BehaviorAutomated).
+ */
+class MovementPath {
+
+  // the paths compiled so far: they hold no resources, so they are kept from a level to the next
+  private static Array<MovementPath> cache = new Array<>();
+
+  // what the path was compiled from, copied so that it never changes with the arrays of a behavior
+  private final Vector2 speed;
+  private final Array<Vector2> moves;
+
+  private final float[] velocitiesX;
+  private final float[] velocitiesY;
+
+  // the number of physics steps of each segment
+  private final int[] durations;
+
+  /**
+   * @param speed in pixels per step, on each axis
+   * @param moves in pixels, an axis along which the speed is 0 doesn't move
+   * @return the path of the moves at the speed, compiled on the first call and then shared
+   */
+  public static MovementPath get(Vector2 speed, Array<Vector2> moves) {
+    for(MovementPath path: cache) {
+      if(path.isCompiledFrom(speed, moves)) {
+        return path;
+      }
+    }
+
+    MovementPath path = new MovementPath(speed, moves);
+    cache.add(path);
+
+    return path;
+  }
+
+  private MovementPath(Vector2 speed, Array<Vector2> moves) {
+    this.speed = new Vector2(speed);
+    this.moves = new Array<>(moves.size);
+
+    for(Vector2 move: moves) {
+      this.moves.add(new Vector2(move));
+    }
+
+    FloatArray velocitiesX = new FloatArray();
+    FloatArray velocitiesY = new FloatArray();
+    IntArray durations = new IntArray();
+
+    float physicsSpeedX = Math.abs(speed.x) / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float physicsSpeedY = Math.abs(speed.y) / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    for(Vector2 move: moves) {
+      int stepsX = getMovingSteps(move.x, physicsSpeedX);
+      int stepsY = getMovingSteps(move.y, physicsSpeedY);
+
+      float velocityX = move.x < 0 ? -physicsSpeedX : physicsSpeedX;
+      float velocityY = move.y < 0 ? -physicsSpeedY : physicsSpeedY;
+
+      int bothSteps = Math.min(stepsX, stepsY);
+      addSegment(velocitiesX, velocitiesY, durations, velocityX, velocityY, bothSteps);
+
+      if(stepsX > stepsY) {
+        addSegment(velocitiesX, velocitiesY, durations, velocityX, 0f, stepsX - bothSteps);
+      } else {
+        addSegment(velocitiesX, velocitiesY, durations, 0f, velocityY, stepsY - bothSteps);
+      }
+
+      addSegment(velocitiesX, velocitiesY, durations, 0f, 0f, 1);
+    }
+
+    this.velocitiesX = velocitiesX.toArray();
+    this.velocitiesY = velocitiesY.toArray();
+    this.durations = durations.toArray();
+  }
+
+  private boolean isCompiledFrom(Vector2 speed, Array<Vector2> moves) {
+    if(!this.speed.equals(speed) || this.moves.size != moves.size) {
+      return false;
+    }
+
+    for(int i = 0; i < moves.size; i++) {
+      if(!this.moves.get(i).equals(moves.get(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return the number of steps during which an axis moves, the last step of a move being always at rest
+   */
+  private static int getMovingSteps(float distance, float physicsSpeed) {
+    if(physicsSpeed <= 0f) {
+      return 0;
+    }
+
+    return Math.max((int) Math.ceil(Math.abs(distance) / physicsSpeed) - 1, 0);
+  }
+
+  private static void addSegment(FloatArray velocitiesX, FloatArray velocitiesY, IntArray durations, float velocityX, float velocityY, int duration) {
+    if(duration <= 0) {
+      return;
+    }
+
+    velocitiesX.add(velocityX);
+    velocitiesY.add(velocityY);
+    durations.add(duration);
+  }
+
+  public int getSegmentCount() {
+    return this.durations.length;
+  }
+
+  public float getVelocityX(int segment) {
+    return this.velocitiesX[segment];
+  }
+
+  public float getVelocityY(int segment) {
+    return this.velocitiesY[segment];
+  }
+
+  public int getDuration(int segment) {
+    return this.durations[segment];
+  }
+}
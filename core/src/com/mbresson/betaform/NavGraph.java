@@ -0,0 +1,336 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.DefaultIndexedGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The places where a walking enemy can go, compiled from the tiles of the level.
+ *
+ * The level is divided into cells of the size of a tile. The graph has a node per cell,
+ * connected to the cells an enemy standing on it can reach: walking to the next cell, jumping onto a step
+ * or falling from an edge. It also has a node per square cluster of cells, connected to the clusters
+ * its cells lead to, so that a long path is first searched between a few clusters (see NavPlanner).
+ * The cells and the clusters are never connected to each other.
+ *
+ * The closed doors block their cells, and the graph is patched around a door when it opens or closes.
+ * The cells of the doors are kept apart from the ones of the tiles, so that opening a door never frees a tile.
+ */
+class NavGraph extends DefaultIndexedGraph<NavGraph.Node> {
+
+  static class Node implements IndexedNode<Node> {
+    private final int index;
+    private final int x, y;
+
+    // the number of cells on a side of the node: 1 for a cell, the size of the clusters for a cluster
+    private final int size;
+
+    private final Array<Connection<Node>> connections = new Array<>(4);
+
+    private Node(int index, int x, int y, int size) {
+      this.index = index;
+      this.x = x;
+      this.y = y;
+      this.size = size;
+    }
+
+    @Override
+    public int getIndex() {
+      return this.index;
+    }
+
+    @Override
+    public Array<Connection<Node>> getConnections() {
+      return this.connections;
+    }
+
+    /**
+     * @return the column of the cell (or cluster)
+     */
+    public int getX() {
+      return this.x;
+    }
+
+    /**
+     * @return the row of the cell (or cluster)
+     */
+    public int getY() {
+      return this.y;
+    }
+
+    /**
+     * @return the number of cells between the two nodes, walking horizontally then vertically
+     */
+    public float getDistance(Node node) {
+      return (Math.abs(this.x - node.x) + Math.abs(this.y - node.y)) * this.size;
+    }
+  }
+
+  private static class NavConnection extends DefaultConnection<Node> {
+    private final float cost;
+
+    private NavConnection(Node fromNode, Node toNode, float cost) {
+      super(fromNode, toNode);
+      this.cost = cost;
+    }
+
+    @Override
+    public float getCost() {
+      return this.cost;
+    }
+  }
+
+  private final int width, height;
+  private final int clusterSize, clustersX, clustersY;
+
+  // the cells filled by a tile, which never change
+  private final boolean[] tileSolid;
+
+  // the cells filled by a closed door, see patch
+  private final boolean[] doorBlocked;
+
+  private final Rectangle bounds = new Rectangle();
+
+  // incremented at each patch, so that the paths found before can be thrown away
+  private int version = 0;
+
+  public NavGraph(Level level, int clusterSize) {
+    super();
+
+    this.width = (level.getWidth() + Configuration.Level.TILE_WIDTH - 1) / Configuration.Level.TILE_WIDTH;
+    this.height = (level.getHeight() + Configuration.Level.TILE_HEIGHT - 1) / Configuration.Level.TILE_HEIGHT;
+
+    this.clusterSize = clusterSize;
+    this.clustersX = (this.width + clusterSize - 1) / clusterSize;
+    this.clustersY = (this.height + clusterSize - 1) / clusterSize;
+
+    this.tileSolid = new boolean[this.width * this.height];
+    this.doorBlocked = new boolean[this.width * this.height];
+
+    this.nodes.ensureCapacity(this.width * this.height + this.clustersX * this.clustersY);
+
+    for(int y = 0; y < this.height; y++) {
+      for(int x = 0; x < this.width; x++) {
+        this.nodes.add(new Node(this.nodes.size, x, y, 1));
+      }
+    }
+
+    for(int y = 0; y < this.clustersY; y++) {
+      for(int x = 0; x < this.clustersX; x++) {
+        this.nodes.add(new Node(this.nodes.size, x, y, clusterSize));
+      }
+    }
+
+    for(LevelTile tile: level.getTiles()) {
+      this.fill(this.tileSolid, tile.getBounds(this.bounds), true);
+    }
+
+    this.connectCells(0, this.width - 1);
+    this.connectClusters();
+  }
+
+  /**
+   * Marks the cells covered by the area (in pixels) as blocked by a door or free of it,
+   * and reconnects the cells around them. The cells of the tiles stay solid.
+   */
+  public void patch(Rectangle area, boolean blocked) {
+    this.fill(this.doorBlocked, area, blocked);
+
+    int firstColumn = (int) Math.floor(area.x / Configuration.Level.TILE_WIDTH);
+    int lastColumn = (int) Math.ceil((area.x + area.width) / Configuration.Level.TILE_WIDTH) - 1;
+
+    // the jumps and falls from the neighbor columns go through the patched ones
+    this.connectCells(firstColumn - 1, lastColumn + 1);
+    this.connectClusters();
+
+    this.version++;
+  }
+
+  public int getVersion() {
+    return this.version;
+  }
+
+  /**
+   * @return the cell at the position (in pixels), or null if it is out of the level
+   */
+  public Node getCell(float x, float y) {
+    int cellX = (int) Math.floor(x / Configuration.Level.TILE_WIDTH);
+    int cellY = (int) Math.floor(y / Configuration.Level.TILE_HEIGHT);
+
+    if(!this.isInside(cellX, cellY)) {
+      return null;
+    }
+
+    return this.nodes.get(cellY * this.width + cellX);
+  }
+
+  /**
+   * @return the first cell which can be stood on at or below the position (in pixels), or null if there is none
+   */
+  public Node getStandingCell(float x, float y) {
+    Node cell = this.getCell(x, y);
+    if(cell == null) {
+      return null;
+    }
+
+    for(int cellY = cell.y; cellY >= 0; cellY--) {
+      if(this.isSolid(cell.x, cellY)) {
+        return null;
+      }
+
+      if(this.isStandable(cell.x, cellY)) {
+        return this.nodes.get(cellY * this.width + cell.x);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @return the horizontal center of the cell, in pixels
+   */
+  public float getCenterX(Node cell) {
+    return (cell.x + 0.5f) * Configuration.Level.TILE_WIDTH;
+  }
+
+  /**
+   * @return the cluster of the cell
+   */
+  public Node getCluster(Node cell) {
+    int clusterX = cell.x / this.clusterSize;
+    int clusterY = cell.y / this.clusterSize;
+
+    return this.nodes.get(this.width * this.height + clusterY * this.clustersX + clusterX);
+  }
+
+  private boolean isInside(int x, int y) {
+    return x >= 0 && y >= 0 && x < this.width && y < this.height;
+  }
+
+  private boolean isSolid(int x, int y) {
+    // the boundaries of the level are solid
+    if(!this.isInside(x, y)) {
+      return true;
+    }
+
+    int index = y * this.width + x;
+
+    return this.tileSolid[index] || this.doorBlocked[index];
+  }
+
+  private boolean isStandable(int x, int y) {
+    return this.isInside(x, y) && !this.isSolid(x, y) && this.isSolid(x, y - 1);
+  }
+
+  private void fill(boolean[] cells, Rectangle area, boolean value) {
+    int firstColumn = Math.max((int) Math.floor(area.x / Configuration.Level.TILE_WIDTH), 0);
+    int lastColumn = Math.min((int) Math.ceil((area.x + area.width) / Configuration.Level.TILE_WIDTH) - 1, this.width - 1);
+    int firstRow = Math.max((int) Math.floor(area.y / Configuration.Level.TILE_HEIGHT), 0);
+    int lastRow = Math.min((int) Math.ceil((area.y + area.height) / Configuration.Level.TILE_HEIGHT) - 1, this.height - 1);
+
+    for(int y = firstRow; y <= lastRow; y++) {
+      for(int x = firstColumn; x <= lastColumn; x++) {
+        cells[y * this.width + x] = value;
+      }
+    }
+  }
+
+  private void connectCells(int firstColumn, int lastColumn) {
+    firstColumn = Math.max(firstColumn, 0);
+    lastColumn = Math.min(lastColumn, this.width - 1);
+
+    for(int x = firstColumn; x <= lastColumn; x++) {
+      for(int y = 0; y < this.height; y++) {
+        Node cell = this.nodes.get(y * this.width + x);
+        cell.connections.clear();
+
+        if(!this.isStandable(x, y)) {
+          continue;
+        }
+
+        this.connectCell(cell, -1);
+        this.connectCell(cell, 1);
+      }
+    }
+  }
+
+  private void connectCell(Node cell, int direction) {
+    int x = cell.x + direction;
+    int y = cell.y;
+
+    if(!this.isInside(x, y)) {
+      return;
+    }
+
+    // walk to the next cell
+    if(this.isStandable(x, y)) {
+      this.connect(cell, x, y, 1f);
+      return;
+    }
+
+    // jump onto a step, if nothing is above the enemy
+    if(this.isSolid(x, y)) {
+      for(int height = 1; height <= Configuration.AI.NAV_MAX_JUMP_HEIGHT; height++) {
+        if(this.isSolid(cell.x, y + height)) {
+          return;
+        }
+
+        if(this.isStandable(x, y + height)) {
+          this.connect(cell, x, y + height, 1f + height * 2f);
+          return;
+        }
+      }
+
+      return;
+    }
+
+    // fall from the edge
+    for(int fallY = y - 1; fallY >= 0; fallY--) {
+      if(this.isStandable(x, fallY)) {
+        this.connect(cell, x, fallY, 1f + (y - fallY) * 0.5f);
+        return;
+      }
+    }
+  }
+
+  private void connect(Node cell, int x, int y, float cost) {
+    cell.connections.add(new NavConnection(cell, this.nodes.get(y * this.width + x), cost));
+  }
+
+  /**
+   * Recomputes all the connections of the clusters from the cells, since there are few of them.
+   */
+  private void connectClusters() {
+    int firstCluster = this.width * this.height;
+
+    for(int i = firstCluster; i < this.nodes.size; i++) {
+      this.nodes.get(i).connections.clear();
+    }
+
+    for(int i = 0; i < firstCluster; i++) {
+      Node cell = this.nodes.get(i);
+      Node cluster = this.getCluster(cell);
+
+      for(Connection<Node> connection: cell.connections) {
+        Node toCluster = this.getCluster(connection.getToNode());
+
+        if(toCluster != cluster && !this.isConnected(cluster, toCluster)) {
+          cluster.connections.add(new NavConnection(cluster, toCluster, this.clusterSize));
+        }
+      }
+    }
+  }
+
+  private boolean isConnected(Node from, Node to) {
+    for(Connection<Node> connection: from.connections) {
+      if(connection.getToNode() == to) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
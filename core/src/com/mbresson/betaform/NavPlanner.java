@@ -0,0 +1,211 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Finds the paths of the enemies in the NavGraph of the level.
+ *
+ * A path is first searched between the clusters of the graph, then between the cells all the way to the goal,
+ * the cells of the clusters of that first path being tried first. Since each connection between two cells
+ * connects their clusters, there is no path between the cells when there is none between their clusters.
+ * The cells reached on the way are never a dead end (e.g. a pit in the next cluster): the path always ends at the goal.
+ *
+ * The paths are cached by start and goal cells until the graph is patched,
+ * and only a few searches are run per frame: an enemy which doesn't get its path keeps its previous one.
+ * The paths of a cleared cache are reused for the next searches, so an enemy must drop its path
+ * when the generation of the cache changes (see getGeneration).
+ */
+public class NavPlanner {
+
+  private static final Heuristic<NavGraph.Node> HEURISTIC = new Heuristic<NavGraph.Node>() {
+    @Override
+    public float estimate(NavGraph.Node node, NavGraph.Node endNode) {
+      return node.getDistance(endNode);
+    }
+  };
+
+  private final NavGraph graph;
+
+  private final IndexedAStarPathFinder<NavGraph.Node> finder;
+
+  // the clusters of the last path found between the clusters, see search
+  private final DefaultGraphPath<NavGraph.Node> clusterPath = new DefaultGraphPath<>();
+
+  // by index of node, whether the cluster is on the cluster path
+  private final boolean[] corridor;
+
+  private final Heuristic<NavGraph.Node> corridorHeuristic = new Heuristic<NavGraph.Node>() {
+    @Override
+    public float estimate(NavGraph.Node node, NavGraph.Node endNode) {
+      float distance = node.getDistance(endNode);
+
+      if(!NavPlanner.this.corridor[NavPlanner.this.graph.getCluster(node).getIndex()]) {
+        distance += Configuration.AI.NAV_CORRIDOR_PENALTY;
+      }
+
+      return distance;
+    }
+  };
+
+  // the paths found, by start and goal cells, see getKey
+  private LongMap<DefaultGraphPath<NavGraph.Node>> cache = new LongMap<>();
+  private int cacheVersion;
+
+  // incremented each time the cache is cleared, see getGeneration
+  private int generation = 0;
+
+  private Pool<DefaultGraphPath<NavGraph.Node>> pathPool = new Pool<DefaultGraphPath<NavGraph.Node>>() {
+    @Override
+    protected DefaultGraphPath<NavGraph.Node> newObject() {
+      return new DefaultGraphPath<>();
+    }
+  };
+
+  private int searchesLeft = Configuration.AI.NAV_SEARCHES_PER_FRAME;
+
+  private long searches = 0;
+  private long cacheHits = 0;
+  private long deferred = 0;
+  private long failures = 0;
+  private long patches = 0;
+
+  public NavPlanner(Level level) {
+    this.graph = new NavGraph(level, Configuration.AI.NAV_CLUSTER_SIZE);
+    this.cacheVersion = this.graph.getVersion();
+
+    this.finder = new IndexedAStarPathFinder<>(this.graph);
+    this.corridor = new boolean[this.graph.getNodeCount()];
+  }
+
+  public NavGraph getGraph() {
+    return this.graph;
+  }
+
+  /**
+   * @return the generation of the cache: the paths found during a previous generation may have been reused since
+   */
+  public int getGeneration() {
+    return this.generation;
+  }
+
+  /**
+   * Must be called at the beginning of each frame, gives back the searches of the frame.
+   */
+  public void beginFrame() {
+    this.searchesLeft = Configuration.AI.NAV_SEARCHES_PER_FRAME;
+  }
+
+  /**
+   * Blocks or frees the cells of an area (in pixels), e.g. when a door opens.
+   * The paths found before are forgotten.
+   */
+  public void patch(Rectangle area, boolean blocked) {
+    this.graph.patch(area, blocked);
+    this.patches++;
+  }
+
+  /**
+   * @return the path from the start cell to the goal cell (the first node being the start),
+   * or null if there is none or if no search is left for this frame
+   */
+  public DefaultGraphPath<NavGraph.Node> findPath(NavGraph.Node start, NavGraph.Node goal) {
+    if(this.cacheVersion != this.graph.getVersion()) {
+      this.clearCache();
+      this.cacheVersion = this.graph.getVersion();
+    }
+
+    long key = getKey(start, goal);
+
+    DefaultGraphPath<NavGraph.Node> path = this.cache.get(key);
+    if(path != null || this.cache.containsKey(key)) {
+      this.cacheHits++;
+      return path;
+    }
+
+    if(this.searchesLeft <= 0) {
+      this.deferred++;
+      return null;
+    }
+
+    this.searchesLeft--;
+    this.searches++;
+
+    if(this.cache.size >= Configuration.AI.NAV_CACHE_CAPACITY) {
+      this.clearCache();
+    }
+
+    path = this.pathPool.obtain();
+    path.clear();
+
+    if(!this.search(start, goal, path)) {
+      this.failures++;
+      this.pathPool.free(path);
+      path = null;
+    }
+
+    // the failures are cached too, so that an unreachable goal isn't searched again at each tick
+    this.cache.put(key, path);
+
+    return path;
+  }
+
+  private void clearCache() {
+    for(DefaultGraphPath<NavGraph.Node> path: this.cache.values()) {
+      if(path != null) {
+        this.pathPool.free(path);
+      }
+    }
+
+    this.cache.clear();
+    this.generation++;
+  }
+
+  private boolean search(NavGraph.Node start, NavGraph.Node goal, DefaultGraphPath<NavGraph.Node> path) {
+    if(start == goal) {
+      path.add(start);
+      return true;
+    }
+
+    NavGraph.Node startCluster = this.graph.getCluster(start);
+    NavGraph.Node goalCluster = this.graph.getCluster(goal);
+
+    if(startCluster == goalCluster) {
+      return this.finder.searchNodePath(start, goal, HEURISTIC, path);
+    }
+
+    this.clusterPath.clear();
+    if(!this.finder.searchNodePath(startCluster, goalCluster, HEURISTIC, this.clusterPath)) {
+      return false;
+    }
+
+    for(NavGraph.Node cluster: this.clusterPath) {
+      this.corridor[cluster.getIndex()] = true;
+    }
+
+    boolean found = this.finder.searchNodePath(start, goal, this.corridorHeuristic, path);
+
+    for(NavGraph.Node cluster: this.clusterPath) {
+      this.corridor[cluster.getIndex()] = false;
+    }
+
+    return found;
+  }
+
+  private static long getKey(NavGraph.Node start, NavGraph.Node goal) {
+    return ((long) start.getIndex() << 32) | goal.getIndex();
+  }
+
+  @Override
+  public String toString() {
+    return
+      this.searches + " path searches (" + this.failures + " without a path), " +
+      this.cacheHits + " paths from the cache, " +
+      this.deferred + " searches deferred to a later frame, " +
+      this.patches + " patches of the graph";
+  }
+}
@@ -11,7 +11,13 @@ interface ObjectMovable {
 
   public void stop();
 
+  // the vectors returned are reused by the object, they must not be kept
   public Vector2 getPhysicsPosition();
 
+  public Vector2 getPhysicsVelocity();
+
+  // true if only move changes the velocity of the object (e.g. a kinematic body), so it is set only when it changes
+  public boolean keepsVelocity();
+
 }
 
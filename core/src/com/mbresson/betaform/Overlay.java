@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 
 /**
@@ -14,7 +14,7 @@ public class Overlay implements ResourceEater {
 
   protected String getPath() { return "img/sprites/overlay.atlas"; }
 
-  public enum Color {
+  public enum Color implements Labeled {
     BLACK("black"),
     BLUE("blue"),
     GREY("grey"),
@@ -34,17 +34,18 @@ public class Overlay implements ResourceEater {
   }
 
   private TextureAtlas textureAtlas;
+  private AtlasRegionTable<Color> regions;
   private Sprite sprite;
 
   public void setColor(Color color) {
-    sprite.setRegion(textureAtlas.findRegion(color.getLabel()));
+    sprite.setRegion(this.regions.get(color));
   }
 
   public void setAlpha(float alpha) {
     sprite.setAlpha(alpha);
   }
 
-  public void display(SpriteBatch batch, float x, float y, float width, float height) {
+  public void display(Batch batch, float x, float y, float width, float height) {
     sprite.setPosition(x, y);
     sprite.setSize(width, height);
 
@@ -67,7 +68,8 @@ public class Overlay implements ResourceEater {
     AssetManager manager = ResourceLoader.getInstance().registerForPostloading(this.getResourceEaterID());
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
-    this.sprite = new Sprite(this.textureAtlas.findRegion(Color.BLACK.getLabel()));
+    this.regions = new AtlasRegionTable<>(this.textureAtlas, Color.class);
+    this.sprite = new Sprite(this.regions.get(Color.BLACK));
   }
 
   @Override
@@ -0,0 +1,134 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+
+/**
+ * Shows the timings measured by the FrameProfiler in the bottom left corner of the window:
+ * the min/avg/p99 time of each phase and of the whole frame over the last frames,
+ * the number of render calls, bodies and contacts, and the time of the last frames as a sparkline.
+ *
+ * The text is built again every few frames only, in the same StringBuilder.
+ */
+class PerformanceHud {
+
+  private static final int MARGIN = 10;
+
+  // the height of the sparkline, a frame which takes longer than SPARKLINE_MAX_TIME fills it
+  private static final int SPARKLINE_HEIGHT = 60;
+  private static final float SPARKLINE_MAX_TIME = 1 / 20f;
+
+  // the frames longer than this are drawn in red
+  private static final float TARGET_FRAME_TIME = 1 / 60f;
+
+  // values() gives a new array at each call
+  private static final FrameProfiler.Phase[] PHASES = FrameProfiler.Phase.values();
+
+  private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 0.6f);
+  private static final Color FAST_FRAME_COLOR = new Color(0.3f, 0.9f, 0.3f, 1);
+  private static final Color SLOW_FRAME_COLOR = new Color(0.9f, 0.3f, 0.3f, 1);
+
+  private final FrameProfiler profiler;
+
+  private BitmapFont font = new BitmapFont();
+  private Texture pixel;
+
+  private StringBuilder text = new StringBuilder(512);
+  private int framesBeforeRefresh = 0;
+
+  public PerformanceHud(FrameProfiler profiler) {
+    this.profiler = profiler;
+
+    Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+    pixmap.setColor(Color.WHITE);
+    pixmap.fill();
+
+    this.pixel = new Texture(pixmap);
+    pixmap.dispose();
+  }
+
+  /**
+   * @param renderCalls the number of render calls of the batches during the last frame
+   */
+  public void display(Batch batch, int renderCalls, int bodies, int contacts) {
+    if(this.framesBeforeRefresh <= 0) {
+      this.buildText(renderCalls, bodies, contacts);
+      this.framesBeforeRefresh = Configuration.Video.PERFORMANCE_HUD_REFRESH;
+    }
+
+    this.framesBeforeRefresh--;
+
+    FrameProfiler.Samples frames = this.profiler.getFrames();
+
+    int width = frames.getCapacity() * 2;
+    int textHeight = (int)(this.font.getLineHeight() * (FrameProfiler.Phase.COUNT + 2));
+    int height = SPARKLINE_HEIGHT + MARGIN + textHeight;
+
+    batch.setColor(BACKGROUND_COLOR);
+    batch.draw(this.pixel, MARGIN / 2, MARGIN / 2, width + MARGIN, height + MARGIN);
+
+    // the sparkline, the last frame being on the right
+    float targetY = MARGIN + SPARKLINE_HEIGHT * TARGET_FRAME_TIME / SPARKLINE_MAX_TIME;
+
+    for(int age = 0; age < frames.getCount(); age++) {
+      float time = frames.get(age) / 1000000000f;
+      float barHeight = Math.min(time / SPARKLINE_MAX_TIME, 1f) * SPARKLINE_HEIGHT;
+
+      batch.setColor(time > TARGET_FRAME_TIME ? SLOW_FRAME_COLOR : FAST_FRAME_COLOR);
+      batch.draw(this.pixel, MARGIN + width - (age + 1) * 2, MARGIN, 2, Math.max(barHeight, 1));
+    }
+
+    batch.setColor(Color.WHITE);
+    batch.draw(this.pixel, MARGIN, targetY, width, 1);
+
+    this.font.draw(batch, this.text, MARGIN, MARGIN + height);
+  }
+
+  public void dispose() {
+    this.font.dispose();
+    this.pixel.dispose();
+  }
+
+  private void buildText(int renderCalls, int bodies, int contacts) {
+    this.text.setLength(0);
+
+    this.appendSamples("Frame", this.profiler.getFrames());
+
+    for(FrameProfiler.Phase phase: PHASES) {
+      this.appendSamples(phase.getLabel(), this.profiler.getSamples(phase));
+    }
+
+    this.text
+      .append(renderCalls).append(" render calls, ")
+      .append(bodies).append(" bodies, ")
+      .append(contacts).append(" contacts");
+  }
+
+  private void appendSamples(String label, FrameProfiler.Samples samples) {
+    this.text.append(label).append(": min ");
+    this.appendMilliseconds(samples.getMin());
+    this.text.append(" / avg ");
+    this.appendMilliseconds(samples.getAverage());
+    this.text.append(" / p99 ");
+    this.appendMilliseconds(samples.getPercentile(99));
+    this.text.append(" ms\n");
+  }
+
+  /**
+   * Appends the time with two decimals, without the allocations of the float formatting.
+   */
+  private void appendMilliseconds(long nanoseconds) {
+    long hundredths = nanoseconds / 10000;
+
+    this.text.append(hundredths / 100).append('.');
+
+    if(hundredths % 100 < 10) {
+      this.text.append('0');
+    }
+
+    this.text.append(hundredths % 100);
+  }
+}
@@ -1,8 +1,9 @@
 package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -18,6 +19,9 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     MIDDLE;
 
     private static final int FEET_WIDTH = 8; // TODO clean up
+
+    // values() copies the array at each call
+    private static final int COUNT = values().length;
   }
 
   protected String getPath() { return "img/sprites/player.atlas"; }
@@ -39,13 +43,16 @@ public class Player extends LevelObject implements CanBeHitByBullet {
 
   private TextureAtlas textureAtlas;
 
-  private int regionIndex = FIRST_REGION;
-  private float regionTime = 0f;
+  private Animation walkingAnimation, fastWalkingAnimation;
+  private SpriteAnimation animation;
 
   private boolean resetPosition = false;
 
   private Direction direction = Direction.LEFT;
   private boolean moving = false, pushing = false;
+
+  // reused so that jumping, being hit and shooting don't allocate
+  private Vector2 impulse = new Vector2(), bulletPosition = new Vector2();
   private int partsInsideExitPortal = 0; // see isReadyToExit() method
 
   private int health = Player.MAX_HEALTH;
@@ -80,7 +87,16 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     return this.health;
   }
 
-  public void display(SpriteBatch batch) {
+  public boolean isDead() {
+    return this.health < 0;
+  }
+
+  @Override
+  protected CollisionCategory getCollisionCategory() {
+    return CollisionCategory.PLAYER;
+  }
+
+  public void display(Batch batch) {
     if(direction == Direction.LEFT) {
       sprite.flip(true, false);
       sprite.draw(batch);
@@ -94,7 +110,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     }
   }
 
-  public void displayOverlay(SpriteBatch batch) {
+  public void displayOverlay(Batch batch) {
     status.display(
       batch,
       this.health * 100 / MAX_HEALTH,
@@ -105,7 +121,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     );
   }
 
-  public void displayInteraction(SpriteBatch batch) {
+  public void displayInteraction(Batch batch) {
     if(this.interacting) {
       this.nearestInteractable.displayInteraction(batch);
     }
@@ -118,6 +134,15 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     this.resetPosition = true;
   }
 
+  /**
+   * Bring the player back to his initial position with his full health, after he died.
+   */
+  public void respawn() {
+    this.health = Player.MAX_HEALTH;
+
+    this.resetPosition();
+  }
+
   public void resetInitialPosition(Vector2D initialPosition) {
     this.position = initialPosition;
 
@@ -136,16 +161,16 @@ public class Player extends LevelObject implements CanBeHitByBullet {
         0
       );
 
+      // the player is teleported, so there is nothing to interpolate
+      this.savePhysicsState();
+
       this.resetPosition = false;
     }
 
     /*
      * Update the player's coordinates based on its physics body.
      */
-    sprite.setPosition(
-      (body.getPosition().x * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getWidth()/2,
-      (body.getPosition().y * Configuration.Physics.WORLD_UNIT_TO_PIXELS) - sprite.getHeight()/2
-    );
+    this.syncGraphicsFromPhysics();
 
     if(isStopped() || !moving) {
       moving = false;
@@ -161,17 +186,12 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     }
 
     if(moving && !isJumping()) {
-      regionTime += deltaTime;
-      if(regionTime > this.getAnimationStep()) {
-        regionIndex++;
-
-        if(regionIndex > LAST_REGION) {
-          regionIndex = FIRST_REGION;
-        }
-
-        sprite.setRegion(textureAtlas.findRegion(Integer.toString(regionIndex)));
+      GameInstance gameRef = Betaform.getGameRef();
+      if(gameRef != null) {
+        float time = gameRef.getAnimationClock().getTime();
 
-        regionTime = 0f;
+        this.animation.setAnimation(this.getWalkingAnimation(), time);
+        this.animation.update(sprite, time);
       }
     }
 
@@ -242,7 +262,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     }
 
     this.body.applyLinearImpulse(
-      new Vector2(0, this.getJumpSpeed()),
+      this.impulse.set(0, this.getJumpSpeed()),
       body.getWorldCenter(),
       true
     );
@@ -253,10 +273,12 @@ public class Player extends LevelObject implements CanBeHitByBullet {
   }
 
   private void resetAnimation() {
-    regionIndex = 1;
-    regionTime = 0f;
+    GameInstance gameRef = Betaform.getGameRef();
+    if(gameRef == null) {
+      return;
+    }
 
-    sprite.setRegion(textureAtlas.findRegion(Integer.toString(FIRST_REGION)));
+    this.animation.restart(sprite, gameRef.getAnimationClock().getTime());
   }
 
   private boolean isStopped() {
@@ -294,7 +316,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
   public boolean decreaseHealth(int minus) {
     this.health -= minus;
 
-    if(this.health < 0) {
+    if(this.isDead()) {
       GameInstance gameRef = Betaform.getGameRef();
       if(gameRef == null) {
         return false;
@@ -355,11 +377,11 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     return this.getSpeed() / 2f;
   }
 
-  private float getAnimationStep() {
+  private Animation getWalkingAnimation() {
     if(this.isUsingAddon(PlayerAddon.ADDON_SPEED)) {
-      return ANIMATION_STEP / 2f;
+      return this.fastWalkingAnimation;
     } else {
-      return ANIMATION_STEP;
+      return this.walkingAnimation;
     }
   }
 
@@ -495,17 +517,18 @@ public class Player extends LevelObject implements CanBeHitByBullet {
   }
 
   private boolean isReadyToExit() {
-    return this.partsInsideExitPortal == BodyPart.values().length;
+    return this.partsInsideExitPortal == BodyPart.COUNT;
   }
 
   /**
    * If the player shoots a new bullet, where should it appear?
+   * The vector is reused at each call.
    */
   public Vector2 getNewBulletPosition() {
     float y = body.getPosition().y;
     float x = body.getPosition().x + (direction == Direction.LEFT ? -this.getWidth() : this.getWidth());
 
-    return new Vector2(x, y);
+    return this.bulletPosition.set(x, y);
   }
 
   /**
@@ -528,7 +551,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     }
 
     this.body.applyLinearImpulse(
-      new Vector2(xImpulse, yImpulse),
+      this.impulse.set(xImpulse, yImpulse),
       this.body.getWorldCenter(),
       true
     );
@@ -544,7 +567,7 @@ public class Player extends LevelObject implements CanBeHitByBullet {
 
   @Override
   public boolean hitBy(BulletManager.Bullet bullet) {
-    if(!this.hitBy(bullet.strength, bullet.direction)) {
+    if(!this.hitBy(bullet.getStrength(), bullet.getDirection())) {
       return false;
     }
 
@@ -629,6 +652,8 @@ public class Player extends LevelObject implements CanBeHitByBullet {
       save.getPhysicsPosition(),
       0
     );
+
+    this.savePhysicsState();
   }
 
   /**
@@ -672,6 +697,9 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     fixtureDef.friction = 0f;
     fixtureDef.restitution = 0f;
 
+    // the feet have the same category
+    this.getCollisionCategory().applyTo(fixtureDef.filter);
+
     Fixture fixture = body.createFixture(fixtureDef);
     fixture.setUserData(BodyPart.MIDDLE);
 
@@ -715,7 +743,12 @@ public class Player extends LevelObject implements CanBeHitByBullet {
     AssetManager manager = ResourceLoader.getInstance().registerForPostloading(this.getResourceEaterID());
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
-    this.sprite = new Sprite(this.textureAtlas.findRegion(Integer.toString(FIRST_REGION)));
+
+    this.walkingAnimation = SpriteAnimation.getAnimation(this.textureAtlas, FIRST_REGION, LAST_REGION, ANIMATION_STEP);
+    this.fastWalkingAnimation = SpriteAnimation.getAnimation(this.textureAtlas, FIRST_REGION, LAST_REGION, ANIMATION_STEP / 2f);
+    this.animation = new SpriteAnimation(this.walkingAnimation);
+
+    this.sprite = new Sprite(this.animation.getFirstFrame());
 
     this.sprite.setX(this.position.getX() + this.sprite.getWidth()/2);
     this.sprite.setY(this.position.getY() + this.sprite.getHeight()/2);
@@ -8,7 +8,7 @@ import com.badlogic.gdx.utils.JsonValue;
  * LevelAddon represents an addon object on the map,
  * PlayerAddon represents an addon owned by the player.
  */
-enum PlayerAddon implements Json.Serializable {
+enum PlayerAddon implements Json.Serializable, Labeled {
 
   ADDON_SHIELD(LevelAddon.ADDON_SHIELD),
   ADDON_SPEED(LevelAddon.ADDON_SPEED),
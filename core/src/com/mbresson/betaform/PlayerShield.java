@@ -2,7 +2,7 @@ package com.mbresson.betaform;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 
@@ -17,7 +17,7 @@ public class PlayerShield implements ResourceEater {
 
   private float width, height;
 
-  public void display(SpriteBatch batch, float centerX, float centerY) {
+  public void display(Batch batch, float centerX, float centerY) {
     sprite.setPosition(
       centerX - width/2,
       centerY - height/2
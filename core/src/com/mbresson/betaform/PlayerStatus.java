@@ -11,7 +11,7 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader.FreeTypeFontLoaderParameter;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.utils.Array;
@@ -29,12 +29,21 @@ public class PlayerStatus implements ResourceEater {
   private static final String FONT_PATH = "fonts/DejaVuSans.ttf";
   private static final int FONT_SIZE = 28;
 
-  private static final String STATUS_HEALTH = "health";
-  private static final String STATUS_SCORE = "score";
-  private static final String STATUS_BATTERY = "battery";
-  private static final String STATUS_SHIELD = "shield";
-  private static final String STATUS_SPEED = "speed";
-  private static final String STATUS_STRENGTH = "strength";
+  private static enum StatusIcon implements Labeled {
+    HEALTH("health"),
+    SCORE("score"),
+    BATTERY("battery");
+
+    private String type;
+
+    private StatusIcon(String type) {
+      this.type = type;
+    }
+
+    public String getLabel() {
+      return this.type;
+    }
+  }
 
   private static final int OVERLAY_PADDING = 5;
   private static final int ADDON_OFFSET = 10;
@@ -42,16 +51,24 @@ public class PlayerStatus implements ResourceEater {
   private int overlayX, overlayY;
   private int statusY, healthX, scoreX, batteryX;
   private int healthBarX, batteryBarX, scoreTextX, scoreTextY;
+
+  private StringBuilder scoreText = new StringBuilder(8);
+  private int displayedScore = -1;
   private int statusBarY, statusBarHeight, statusBarMaxWidth;
   private int totalWidth, totalHeight;
 
   private Overlay overlay = new Overlay();
 
   private TextureAtlas textureAtlas;
+  private AtlasRegionTable<StatusIcon> statusRegions;
+
+  // the addons have an icon of the same name in the status atlas
+  private AtlasRegionTable<PlayerAddon> addonRegions;
+
   private Sprite sprite;
   private BitmapFont font;
 
-  private void displayProgressBar(SpriteBatch batch, int percentage, int x, int y, int max_width, int height, Overlay.Color color) {
+  private void displayProgressBar(Batch batch, int percentage, int x, int y, int max_width, int height, Overlay.Color color) {
     overlay.setAlpha(0.8f);
     overlay.setColor(color);
 
@@ -60,7 +77,7 @@ public class PlayerStatus implements ResourceEater {
     overlay.setColor(Overlay.Color.BLACK);
   }
 
-  private void displayProgressBar(SpriteBatch batch, int percentage, int x, int y, int max_width, int height) {
+  private void displayProgressBar(Batch batch, int percentage, int x, int y, int max_width, int height) {
     displayProgressBar(batch, percentage, x, y, max_width, height, Overlay.Color.BLACK);
   }
 
@@ -75,7 +92,7 @@ public class PlayerStatus implements ResourceEater {
    * @param health a percentage (min: 0, max: 100)
    * @param battery a percentage (min: 0, max: 100)
    */
-  public void display(SpriteBatch batch, int health, int score, int battery, Array<PlayerAddon> addons, int currentAddon) {
+  public void display(Batch batch, int health, int score, int battery, Array<PlayerAddon> addons, int currentAddon) {
     /*
      * 1 Draw health, score and battery information.
      */
@@ -88,7 +105,7 @@ public class PlayerStatus implements ResourceEater {
 
     // draw the health
     sprite.setPosition(healthX, statusY);
-    sprite.setRegion(textureAtlas.findRegion(STATUS_HEALTH));
+    sprite.setRegion(this.statusRegions.get(StatusIcon.HEALTH));
     sprite.setSize(
       sprite.getRegionWidth(),
       sprite.getRegionHeight()
@@ -104,18 +121,25 @@ public class PlayerStatus implements ResourceEater {
 
     // draw the score
     sprite.setPosition(scoreX, statusY);
-    sprite.setRegion(textureAtlas.findRegion(STATUS_SCORE));
+    sprite.setRegion(this.statusRegions.get(StatusIcon.SCORE));
     sprite.setSize(
       sprite.getRegionWidth(),
       sprite.getRegionHeight()
     );
     sprite.draw(batch);
 
-    font.draw(batch, Integer.toString(score), scoreTextX, scoreTextY);
+    // the text is only built again when the score changes
+    if(score != this.displayedScore) {
+      this.scoreText.setLength(0);
+      this.scoreText.append(score);
+      this.displayedScore = score;
+    }
+
+    font.draw(batch, this.scoreText, scoreTextX, scoreTextY);
 
     // draw the battery
     sprite.setPosition(batteryX, statusY);
-    sprite.setRegion(textureAtlas.findRegion(STATUS_BATTERY));
+    sprite.setRegion(this.statusRegions.get(StatusIcon.BATTERY));
     sprite.draw(batch);
 
     /*
@@ -170,7 +194,7 @@ public class PlayerStatus implements ResourceEater {
         sprite.setAlpha(0.5f);
       }
 
-      sprite.setRegion(textureAtlas.findRegion(addons.get(addonIndex).getLabel()));
+      sprite.setRegion(this.addonRegions.get(addons.get(addonIndex)));
 
       sprite.setSize(
         sprite.getRegionWidth(),
@@ -266,8 +290,10 @@ public class PlayerStatus implements ResourceEater {
     this.font = manager.get("font-" + FONT_SIZE + ".ttf", BitmapFont.class);
 
     this.textureAtlas = manager.get(this.getPath(), TextureAtlas.class);
+    this.statusRegions = new AtlasRegionTable<>(this.textureAtlas, StatusIcon.class);
+    this.addonRegions = new AtlasRegionTable<>(this.textureAtlas, PlayerAddon.class);
 
-    this.sprite = new Sprite(this.textureAtlas.findRegion(STATUS_HEALTH));
+    this.sprite = new Sprite(this.statusRegions.get(StatusIcon.HEALTH));
 
     this.initGeometry();
   }
@@ -0,0 +1,198 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * The state of the bullets, stored as parallel arrays of primitives (one slot per bullet)
+ * instead of one object per bullet, so that going through all the bullets
+ * (to save their positions, move them or display them) reads contiguous memory.
+ *
+ * The free slots are kept in a free list, a slot is only in use when alive[slot] is true.
+ * The positions and velocities are in world units.
+ *
+ * The arrays are replaced when the store grows, so they must not be kept across a call to grow.
+ */
+public class ProjectileStore {
+
+  public boolean[] alive;
+
+  public float[] x, y;
+  public float[] previousX, previousY;
+  public float[] velocityX, velocityY;
+
+  // the ordinals of the BulletType and Direction of the bullets
+  public int[] type, direction;
+  public int[] strength;
+
+  // used to find the oldest bullet, see findOldest
+  public long[] shotNumber;
+
+  private int capacity = 0;
+  private int size = 0;
+  private long shots = 0;
+
+  private IntArray freeSlots;
+
+  public ProjectileStore(int capacity) {
+    this.alive = new boolean[0];
+    this.x = new float[0];
+    this.y = new float[0];
+    this.previousX = new float[0];
+    this.previousY = new float[0];
+    this.velocityX = new float[0];
+    this.velocityY = new float[0];
+    this.type = new int[0];
+    this.direction = new int[0];
+    this.strength = new int[0];
+    this.shotNumber = new long[0];
+
+    this.freeSlots = new IntArray(capacity);
+
+    this.grow(capacity);
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return the number of slots in use
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds free slots, numbered from the old capacity to the new one.
+   */
+  public void grow(int newCapacity) {
+    if(newCapacity <= this.capacity) {
+      return;
+    }
+
+    this.alive = Arrays.copyOf(this.alive, newCapacity);
+    this.x = Arrays.copyOf(this.x, newCapacity);
+    this.y = Arrays.copyOf(this.y, newCapacity);
+    this.previousX = Arrays.copyOf(this.previousX, newCapacity);
+    this.previousY = Arrays.copyOf(this.previousY, newCapacity);
+    this.velocityX = Arrays.copyOf(this.velocityX, newCapacity);
+    this.velocityY = Arrays.copyOf(this.velocityY, newCapacity);
+    this.type = Arrays.copyOf(this.type, newCapacity);
+    this.direction = Arrays.copyOf(this.direction, newCapacity);
+    this.strength = Arrays.copyOf(this.strength, newCapacity);
+    this.shotNumber = Arrays.copyOf(this.shotNumber, newCapacity);
+
+    // the lowest slots are given first, so that the bullets stay at the beginning of the arrays
+    for(int slot = newCapacity - 1; slot >= this.capacity; slot--) {
+      this.freeSlots.add(slot);
+    }
+
+    this.capacity = newCapacity;
+  }
+
+  /**
+   * @return a slot for a new bullet, whose state must then be set, or -1 if the store is full
+   */
+  public int obtain() {
+    if(this.freeSlots.size == 0) {
+      return -1;
+    }
+
+    int slot = this.freeSlots.pop();
+
+    this.alive[slot] = true;
+    this.shotNumber[slot] = this.shots++;
+    this.size++;
+
+    return slot;
+  }
+
+  public void free(int slot) {
+    if(!this.alive[slot]) {
+      return;
+    }
+
+    this.alive[slot] = false;
+    this.freeSlots.add(slot);
+    this.size--;
+  }
+
+  /**
+   * Gives the bullet in this slot a new shot number, as if it had just been obtained.
+   */
+  public void reuse(int slot) {
+    this.shotNumber[slot] = this.shots++;
+  }
+
+  /**
+   * @return the slot of the oldest bullet of this type in use, or -1 if there is none
+   */
+  public int findOldest(int bulletType) {
+    int oldest = -1;
+
+    for(int slot = 0; slot < this.capacity; slot++) {
+      if(
+        this.alive[slot] && this.type[slot] == bulletType &&
+        (oldest == -1 || this.shotNumber[slot] < this.shotNumber[oldest])
+      ) {
+        oldest = slot;
+      }
+    }
+
+    return oldest;
+  }
+
+  /**
+   * Must be called before each physics step.
+   */
+  public void savePreviousPositions() {
+    System.arraycopy(this.x, 0, this.previousX, 0, this.capacity);
+    System.arraycopy(this.y, 0, this.previousY, 0, this.capacity);
+  }
+
+  /**
+   * Finds the bullets which are in the visible area.
+   *
+   * @param alpha see {@link LevelObject#interpolate(float)}
+   * @param width the size of a bullet, in pixels
+   * @param visibleSlots receives the slots of the visible bullets, it is not cleared
+   * @param positions receives the bottom left corner of each visible bullet, in pixels
+   *
+   * @return the number of visible bullets
+   */
+  public int cull(Rectangle visibleArea, float alpha, float width, float height, IntArray visibleSlots, FloatArray positions) {
+    float left = visibleArea.x - width;
+    float right = visibleArea.x + visibleArea.width;
+    float bottom = visibleArea.y - height;
+    float top = visibleArea.y + visibleArea.height;
+
+    int visible = 0;
+
+    for(int slot = 0; slot < this.capacity; slot++) {
+      if(!this.alive[slot]) {
+        continue;
+      }
+
+      float physicsX = this.previousX[slot] + (this.x[slot] - this.previousX[slot]) * alpha;
+      float physicsY = this.previousY[slot] + (this.y[slot] - this.previousY[slot]) * alpha;
+
+      float pixelsX = physicsX * Configuration.Physics.WORLD_UNIT_TO_PIXELS - width / 2;
+      float pixelsY = physicsY * Configuration.Physics.WORLD_UNIT_TO_PIXELS - height / 2;
+
+      if(pixelsX < left || pixelsX > right || pixelsY < bottom || pixelsY > top) {
+        continue;
+      }
+
+      visibleSlots.add(slot);
+      positions.add(pixelsX);
+      positions.add(pixelsY);
+      visible++;
+    }
+
+    return visible;
+  }
+}
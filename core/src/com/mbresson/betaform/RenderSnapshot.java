@@ -0,0 +1,76 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Everything which must be drawn for one frame, as published by the simulation thread.
+ * The GL thread only replays the recorded vertices: it never reads the game objects.
+ *
+ * A snapshot is reused from one step to the next, see SimulationThread.
+ */
+class RenderSnapshot {
+
+  /**
+   * A list of draw calls, each one being a texture and the vertices drawn with it.
+   */
+  static class Layer {
+
+    private Array<Texture> textures = new Array<>(false, 64);
+    private IntArray counts = new IntArray(false, 64);
+    private FloatArray vertices = new FloatArray(false, 4096);
+
+    void clear() {
+      this.textures.clear();
+      this.counts.clear();
+      this.vertices.clear();
+    }
+
+    void add(Texture texture, float[] spriteVertices, int offset, int count) {
+      /*
+       * Consecutive draws with the same texture are merged,
+       * like SpriteBatch would do when flushing.
+       */
+      int last = this.textures.size - 1;
+      if(last >= 0 && this.textures.get(last) == texture) {
+        this.counts.incr(last, count);
+      } else {
+        this.textures.add(texture);
+        this.counts.add(count);
+      }
+
+      this.vertices.addAll(spriteVertices, offset, count);
+    }
+
+    void draw(Batch batch) {
+      float[] items = this.vertices.items;
+      int offset = 0;
+
+      for(int i = 0; i < this.textures.size; i++) {
+        int count = this.counts.get(i);
+        batch.draw(this.textures.get(i), items, offset, count);
+        offset += count;
+      }
+    }
+
+    int getDrawCount() {
+      return this.textures.size;
+    }
+  }
+
+  // drawn with the camera following the player
+  final Layer world = new Layer();
+
+  // drawn with the static camera (player status, interactions)
+  final Layer hud = new Layer();
+
+  float cameraX, cameraY;
+
+  void clear() {
+    this.world.clear();
+    this.hud.clear();
+  }
+}
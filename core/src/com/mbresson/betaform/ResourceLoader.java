@@ -103,6 +103,9 @@ public class ResourceLoader {
   public void dispose() {
     this.manager.dispose();
     this.preloadedList.clear();
+
+    // the animations hold regions of the atlases which have just been disposed
+    SpriteAnimation.clearCache();
   }
 }
 
@@ -0,0 +1,160 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Runs the physics and the updates of a game out of the GL thread.
+ *
+ * After each pass, the simulation thread records what must be drawn into a RenderSnapshot.
+ * Three snapshots are used: one being recorded, one published, and one being drawn by the GL thread,
+ * so that neither thread ever waits for the other to finish its frame.
+ *
+ * The keys are queued by the GL thread and handled by the simulation thread,
+ * because the player must not be modified while the world is stepped.
+ */
+class SimulationThread implements Runnable {
+
+  private static final String classID = SimulationThread.class.getName();
+
+  private final GameScreen game;
+
+  private Thread thread;
+  private volatile boolean running = false;
+
+  private final Object lock = new Object();
+
+  private RenderSnapshot recording = new RenderSnapshot();
+  private RenderSnapshot published = new RenderSnapshot();
+  private RenderSnapshot drawn = new RenderSnapshot();
+
+  // true when a snapshot has been published since the GL thread last took one
+  private boolean fresh = false;
+
+  /*
+   * Each key event is stored as its keycode, negated for a key released.
+   * The queue is swapped with a second array so that it is never allocated again.
+   */
+  private IntArray pendingKeys = new IntArray(false, 16);
+  private IntArray handledKeys = new IntArray(false, 16);
+
+  public SimulationThread(GameScreen game) {
+    this.game = game;
+  }
+
+  public void start() {
+    if(this.running) {
+      return;
+    }
+
+    this.running = true;
+    this.thread = new Thread(this, classID);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Stops the simulation and waits for the current pass to finish.
+   */
+  public void stop() {
+    if(!this.running) {
+      return;
+    }
+
+    this.running = false;
+
+    try {
+      this.thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    this.thread = null;
+  }
+
+  public void postKeyDown(int keycode) {
+    synchronized(this.lock) {
+      this.pendingKeys.add(keycode);
+    }
+  }
+
+  public void postKeyUp(int keycode) {
+    synchronized(this.lock) {
+      // keycode 0 is Keys.ANY_KEY, which is never received
+      this.pendingKeys.add(-keycode);
+    }
+  }
+
+  /**
+   * Called by the GL thread.
+   *
+   * @return the latest snapshot published, which stays valid until the next call
+   */
+  public RenderSnapshot acquireSnapshot() {
+    synchronized(this.lock) {
+      if(this.fresh) {
+        RenderSnapshot tmp = this.drawn;
+        this.drawn = this.published;
+        this.published = tmp;
+        this.fresh = false;
+      }
+
+      return this.drawn;
+    }
+  }
+
+  private void publishSnapshot() {
+    synchronized(this.lock) {
+      RenderSnapshot tmp = this.published;
+      this.published = this.recording;
+      this.recording = tmp;
+      this.fresh = true;
+    }
+  }
+
+  private void handleKeys() {
+    synchronized(this.lock) {
+      IntArray tmp = this.handledKeys;
+      this.handledKeys = this.pendingKeys;
+      this.pendingKeys = tmp;
+    }
+
+    for(int i = 0; i < this.handledKeys.size; i++) {
+      int key = this.handledKeys.get(i);
+
+      if(key > 0) {
+        this.game.handleKeyDown(key);
+      } else {
+        this.game.handleKeyUp(-key);
+      }
+    }
+
+    this.handledKeys.clear();
+  }
+
+  @Override
+  public void run() {
+    long stepDuration = (long)(Configuration.Physics.FRAMERATE_STEP * 1000000000L);
+
+    while(this.running) {
+      long start = TimeUtils.nanoTime();
+
+      this.handleKeys();
+      this.game.simulate();
+
+      this.recording.clear();
+      this.game.recordSnapshot(this.recording);
+      this.publishSnapshot();
+
+      long sleep = stepDuration - (TimeUtils.nanoTime() - start);
+
+      if(sleep > 0) {
+        try {
+          Thread.sleep(sleep / 1000000L, (int)(sleep % 1000000L));
+        } catch (InterruptedException e) {
+          // do nothing
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,401 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A batch which doesn't draw anything but records the vertices it is given
+ * into a layer of a RenderSnapshot, to be replayed later by a real SpriteBatch.
+ *
+ * It doesn't use OpenGL, so the game objects can be "displayed" from the simulation thread.
+ * The vertices are computed exactly like SpriteBatch computes them.
+ */
+class SnapshotBatch implements Batch {
+
+  private RenderSnapshot.Layer layer;
+
+  private final float[] quad = new float[20];
+
+  private final Color color = new Color(1, 1, 1, 1);
+  private float packedColor = Color.WHITE.toFloatBits();
+
+  private boolean drawing = false;
+  private boolean blending = true;
+  private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+  private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+
+  private final Matrix4 projectionMatrix = new Matrix4();
+  private final Matrix4 transformMatrix = new Matrix4();
+
+  /**
+   * @param layer the layer in which the next draws will be recorded
+   */
+  public void setLayer(RenderSnapshot.Layer layer) {
+    this.layer = layer;
+  }
+
+  @Override
+  public void begin() {
+    if(this.drawing) {
+      throw new IllegalStateException("SnapshotBatch.end must be called before begin.");
+    }
+
+    this.drawing = true;
+  }
+
+  @Override
+  public void end() {
+    if(!this.drawing) {
+      throw new IllegalStateException("SnapshotBatch.begin must be called before end.");
+    }
+
+    this.drawing = false;
+  }
+
+  @Override
+  public void setColor(Color tint) {
+    this.color.set(tint);
+    this.packedColor = tint.toFloatBits();
+  }
+
+  @Override
+  public void setColor(float r, float g, float b, float a) {
+    this.color.set(r, g, b, a);
+    this.packedColor = this.color.toFloatBits();
+  }
+
+  @Override
+  public void setColor(float color) {
+    int intBits = Float.floatToRawIntBits(color);
+    this.color.r = (intBits & 0xff) / 255f;
+    this.color.g = ((intBits >>> 8) & 0xff) / 255f;
+    this.color.b = ((intBits >>> 16) & 0xff) / 255f;
+    this.color.a = ((intBits >>> 24) & 0xff) / 255f;
+    this.packedColor = color;
+  }
+
+  @Override
+  public Color getColor() {
+    return this.color;
+  }
+
+  @Override
+  public float getPackedColor() {
+    return this.packedColor;
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+    float invTexWidth = 1f / texture.getWidth();
+    float invTexHeight = 1f / texture.getHeight();
+
+    float u = srcX * invTexWidth;
+    float v = (srcY + srcHeight) * invTexHeight;
+    float u2 = (srcX + srcWidth) * invTexWidth;
+    float v2 = srcY * invTexHeight;
+
+    if(flipX) {
+      float tmp = u;
+      u = u2;
+      u2 = tmp;
+    }
+
+    if(flipY) {
+      float tmp = v;
+      v = v2;
+      v2 = tmp;
+    }
+
+    this.addTransformedQuad(texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation, u, v, u2, v2);
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+    float invTexWidth = 1f / texture.getWidth();
+    float invTexHeight = 1f / texture.getHeight();
+
+    float u = srcX * invTexWidth;
+    float v = (srcY + srcHeight) * invTexHeight;
+    float u2 = (srcX + srcWidth) * invTexWidth;
+    float v2 = srcY * invTexHeight;
+
+    if(flipX) {
+      float tmp = u;
+      u = u2;
+      u2 = tmp;
+    }
+
+    if(flipY) {
+      float tmp = v;
+      v = v2;
+      v2 = tmp;
+    }
+
+    this.addQuad(texture, x, y, x + width, y + height, u, v, u2, v2);
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+    this.draw(texture, x, y, srcWidth, srcHeight, srcX, srcY, srcWidth, srcHeight, false, false);
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+    this.addQuad(texture, x, y, x + width, y + height, u, v, u2, v2);
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y) {
+    this.draw(texture, x, y, texture.getWidth(), texture.getHeight());
+  }
+
+  @Override
+  public void draw(Texture texture, float x, float y, float width, float height) {
+    this.addQuad(texture, x, y, x + width, y + height, 0, 1, 1, 0);
+  }
+
+  @Override
+  public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+    if(!this.drawing) {
+      throw new IllegalStateException("SnapshotBatch.begin must be called before draw.");
+    }
+
+    this.layer.add(texture, spriteVertices, offset, count);
+  }
+
+  @Override
+  public void draw(TextureRegion region, float x, float y) {
+    this.draw(region, x, y, region.getRegionWidth(), region.getRegionHeight());
+  }
+
+  @Override
+  public void draw(TextureRegion region, float x, float y, float width, float height) {
+    this.addQuad(region.getTexture(), x, y, x + width, y + height, region.getU(), region.getV2(), region.getU2(), region.getV());
+  }
+
+  @Override
+  public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+    this.addTransformedQuad(
+      region.getTexture(), x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+      region.getU(), region.getV2(), region.getU2(), region.getV()
+    );
+  }
+
+  @Override
+  public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+    // the region is turned by 90 degrees, as in SpriteBatch
+    if(clockwise) {
+      this.addTransformedQuad(
+        region.getTexture(), x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+        region.getU2(), region.getV2(), region.getU(), region.getV2(),
+        region.getU(), region.getV(), region.getU2(), region.getV()
+      );
+    } else {
+      this.addTransformedQuad(
+        region.getTexture(), x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+        region.getU(), region.getV(), region.getU2(), region.getV(),
+        region.getU2(), region.getV2(), region.getU(), region.getV2()
+      );
+    }
+  }
+
+  @Override
+  public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+    float x1 = transform.m02;
+    float y1 = transform.m12;
+    float x2 = transform.m01 * height + transform.m02;
+    float y2 = transform.m11 * height + transform.m12;
+    float x3 = transform.m00 * width + transform.m01 * height + transform.m02;
+    float y3 = transform.m10 * width + transform.m11 * height + transform.m12;
+    float x4 = transform.m00 * width + transform.m02;
+    float y4 = transform.m10 * width + transform.m12;
+
+    this.addVertices(
+      region.getTexture(), x1, y1, x2, y2, x3, y3, x4, y4,
+      region.getU(), region.getV2(), region.getU2(), region.getV()
+    );
+  }
+
+  private void addQuad(Texture texture, float x, float y, float x2, float y2, float u, float v, float u2, float v2) {
+    this.addVertices(texture, x, y, x, y2, x2, y2, x2, y, u, v, u2, v2);
+  }
+
+  private void addTransformedQuad(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, float u, float v, float u2, float v2) {
+    this.addTransformedQuad(
+      texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+      u, v, u, v2, u2, v2, u2, v
+    );
+  }
+
+  /**
+   * The texture coordinates are given for each corner, in the same order as in addVertices.
+   */
+  private void addTransformedQuad(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation,
+                                  float cornerU1, float cornerV1, float cornerU2, float cornerV2, float cornerU3, float cornerV3, float cornerU4, float cornerV4) {
+    // same computations as SpriteBatch
+    float worldOriginX = x + originX;
+    float worldOriginY = y + originY;
+    float fx = -originX;
+    float fy = -originY;
+    float fx2 = width - originX;
+    float fy2 = height - originY;
+
+    if(scaleX != 1 || scaleY != 1) {
+      fx *= scaleX;
+      fy *= scaleY;
+      fx2 *= scaleX;
+      fy2 *= scaleY;
+    }
+
+    float x1, y1, x2, y2, x3, y3, x4, y4;
+
+    if(rotation != 0) {
+      float cos = MathUtils.cosDeg(rotation);
+      float sin = MathUtils.sinDeg(rotation);
+
+      x1 = cos * fx - sin * fy;
+      y1 = sin * fx + cos * fy;
+      x2 = cos * fx - sin * fy2;
+      y2 = sin * fx + cos * fy2;
+      x3 = cos * fx2 - sin * fy2;
+      y3 = sin * fx2 + cos * fy2;
+      x4 = x1 + (x3 - x2);
+      y4 = y3 - (y2 - y1);
+    } else {
+      x1 = fx;
+      y1 = fy;
+      x2 = fx;
+      y2 = fy2;
+      x3 = fx2;
+      y3 = fy2;
+      x4 = fx2;
+      y4 = fy;
+    }
+
+    this.addVertices(
+      texture,
+      x1 + worldOriginX, y1 + worldOriginY,
+      x2 + worldOriginX, y2 + worldOriginY,
+      x3 + worldOriginX, y3 + worldOriginY,
+      x4 + worldOriginX, y4 + worldOriginY,
+      cornerU1, cornerV1, cornerU2, cornerV2, cornerU3, cornerV3, cornerU4, cornerV4
+    );
+  }
+
+  private void addVertices(Texture texture, float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4, float u, float v, float u2, float v2) {
+    this.addVertices(texture, x1, y1, x2, y2, x3, y3, x4, y4, u, v, u, v2, u2, v2, u2, v);
+  }
+
+  /**
+   * The corners are given clockwise from the bottom left one, as in SpriteBatch,
+   * each one with its texture coordinates.
+   */
+  private void addVertices(Texture texture, float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4,
+                           float u1, float v1, float u2, float v2, float u3, float v3, float u4, float v4) {
+    float[] quad = this.quad;
+    float color = this.packedColor;
+
+    quad[X1] = x1;
+    quad[Y1] = y1;
+    quad[C1] = color;
+    quad[U1] = u1;
+    quad[V1] = v1;
+
+    quad[X2] = x2;
+    quad[Y2] = y2;
+    quad[C2] = color;
+    quad[U2] = u2;
+    quad[V2] = v2;
+
+    quad[X3] = x3;
+    quad[Y3] = y3;
+    quad[C3] = color;
+    quad[U3] = u3;
+    quad[V3] = v3;
+
+    quad[X4] = x4;
+    quad[Y4] = y4;
+    quad[C4] = color;
+    quad[U4] = u4;
+    quad[V4] = v4;
+
+    this.draw(texture, quad, 0, quad.length);
+  }
+
+  @Override
+  public void flush() {
+    // nothing to flush, everything is recorded as soon as it is drawn
+  }
+
+  @Override
+  public void disableBlending() {
+    this.blending = false;
+  }
+
+  @Override
+  public void enableBlending() {
+    this.blending = true;
+  }
+
+  @Override
+  public void setBlendFunction(int srcFunc, int dstFunc) {
+    this.blendSrcFunc = srcFunc;
+    this.blendDstFunc = dstFunc;
+  }
+
+  @Override
+  public int getBlendSrcFunc() {
+    return this.blendSrcFunc;
+  }
+
+  @Override
+  public int getBlendDstFunc() {
+    return this.blendDstFunc;
+  }
+
+  @Override
+  public Matrix4 getProjectionMatrix() {
+    return this.projectionMatrix;
+  }
+
+  @Override
+  public Matrix4 getTransformMatrix() {
+    return this.transformMatrix;
+  }
+
+  @Override
+  public void setProjectionMatrix(Matrix4 projection) {
+    this.projectionMatrix.set(projection);
+  }
+
+  @Override
+  public void setTransformMatrix(Matrix4 transform) {
+    this.transformMatrix.set(transform);
+  }
+
+  @Override
+  public void setShader(ShaderProgram shader) {
+    // the snapshot is always replayed with the default shader
+  }
+
+  @Override
+  public boolean isBlendingEnabled() {
+    return this.blending;
+  }
+
+  @Override
+  public boolean isDrawing() {
+    return this.drawing;
+  }
+
+  @Override
+  public void dispose() {
+  }
+}
@@ -0,0 +1,235 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * A uniform grid over the level, used to find the items in an area
+ * without going through all the items of the level.
+ *
+ * An item is stored in every cell its bounds overlap.
+ * The bounds are in pixels.
+ */
+public class SpatialGrid<T> {
+
+  private static class Entry<T> {
+    T item;
+    final Rectangle bounds = new Rectangle();
+
+    // the cells overlapped by the bounds, inclusive
+    int minCellX, minCellY, maxCellX, maxCellY;
+
+    // the last query which returned this entry, so that it is returned only once per query
+    int queryMark = 0;
+  }
+
+  private final float cellWidth, cellHeight;
+
+  private LongMap<Array<Entry<T>>> cells = new LongMap<>();
+  private IdentityMap<T, Entry<T>> entries = new IdentityMap<>();
+
+  private int queryMark = 0;
+
+  private final Rectangle queryArea = new Rectangle();
+
+  public SpatialGrid(float cellWidth, float cellHeight) {
+    this.cellWidth = cellWidth;
+    this.cellHeight = cellHeight;
+  }
+
+  public int size() {
+    return this.entries.size;
+  }
+
+  public boolean contains(T item) {
+    return this.entries.containsKey(item);
+  }
+
+  private static long getCellKey(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xffffffffL);
+  }
+
+  private int getCellX(float x) {
+    return (int) Math.floor(x / this.cellWidth);
+  }
+
+  private int getCellY(float y) {
+    return (int) Math.floor(y / this.cellHeight);
+  }
+
+  /**
+   * Adds the item to the grid, or moves it if it is already in it.
+   */
+  public void put(T item, Rectangle bounds) {
+    Entry<T> entry = this.entries.get(item);
+
+    int minCellX = this.getCellX(bounds.x);
+    int minCellY = this.getCellY(bounds.y);
+    int maxCellX = this.getCellX(bounds.x + bounds.width);
+    int maxCellY = this.getCellY(bounds.y + bounds.height);
+
+    if(entry == null) {
+      entry = new Entry<>();
+      entry.item = item;
+      this.entries.put(item, entry);
+    } else if(
+      entry.minCellX == minCellX && entry.minCellY == minCellY &&
+      entry.maxCellX == maxCellX && entry.maxCellY == maxCellY
+    ) {
+      // most of the time, an item moves inside the same cells
+      entry.bounds.set(bounds);
+      return;
+    } else {
+      this.removeFromCells(entry);
+    }
+
+    entry.bounds.set(bounds);
+    entry.minCellX = minCellX;
+    entry.minCellY = minCellY;
+    entry.maxCellX = maxCellX;
+    entry.maxCellY = maxCellY;
+
+    for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+      for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+        long key = getCellKey(cellX, cellY);
+
+        Array<Entry<T>> cell = this.cells.get(key);
+        if(cell == null) {
+          cell = new Array<>(false, 4);
+          this.cells.put(key, cell);
+        }
+
+        cell.add(entry);
+      }
+    }
+  }
+
+  /**
+   * Creates the cells overlapped by the area in advance,
+   * so that moving the items inside it never creates a cell during the game.
+   */
+  public void reserve(Rectangle area) {
+    int minCellX = this.getCellX(area.x);
+    int minCellY = this.getCellY(area.y);
+    int maxCellX = this.getCellX(area.x + area.width);
+    int maxCellY = this.getCellY(area.y + area.height);
+
+    this.cells.ensureCapacity((maxCellX - minCellX + 1) * (maxCellY - minCellY + 1));
+
+    for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+      for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+        long key = getCellKey(cellX, cellY);
+
+        if(!this.cells.containsKey(key)) {
+          this.cells.put(key, new Array<Entry<T>>(false, 4));
+        }
+      }
+    }
+  }
+
+  public void remove(T item) {
+    Entry<T> entry = this.entries.remove(item);
+    if(entry == null) {
+      return;
+    }
+
+    this.removeFromCells(entry);
+  }
+
+  private void removeFromCells(Entry<T> entry) {
+    for(int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+      for(int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+        Array<Entry<T>> cell = this.cells.get(getCellKey(cellX, cellY));
+        if(cell != null) {
+          cell.removeValue(entry, true);
+        }
+      }
+    }
+  }
+
+  public void clear() {
+    this.cells.clear();
+    this.entries.clear();
+  }
+
+  /**
+   * Adds to result the items whose bounds overlap the area.
+   * The result is not cleared, and each item is added only once.
+   */
+  public Array<T> query(Rectangle area, Array<T> result) {
+    this.queryMark++;
+
+    int minCellX = this.getCellX(area.x);
+    int minCellY = this.getCellY(area.y);
+    int maxCellX = this.getCellX(area.x + area.width);
+    int maxCellY = this.getCellY(area.y + area.height);
+
+    for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+      for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+        Array<Entry<T>> cell = this.cells.get(getCellKey(cellX, cellY));
+        if(cell == null) {
+          continue;
+        }
+
+        for(int i = 0; i < cell.size; i++) {
+          Entry<T> entry = cell.get(i);
+
+          if(entry.queryMark != this.queryMark && entry.bounds.overlaps(area)) {
+            entry.queryMark = this.queryMark;
+            result.add(entry.item);
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds to result the items whose bounds overlap the circle.
+   * The result is not cleared, and each item is added only once.
+   */
+  public Array<T> query(float x, float y, float radius, Array<T> result) {
+    this.queryMark++;
+
+    this.queryArea.set(x - radius, y - radius, radius * 2, radius * 2);
+
+    int minCellX = this.getCellX(this.queryArea.x);
+    int minCellY = this.getCellY(this.queryArea.y);
+    int maxCellX = this.getCellX(this.queryArea.x + this.queryArea.width);
+    int maxCellY = this.getCellY(this.queryArea.y + this.queryArea.height);
+
+    float radius2 = radius * radius;
+
+    for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+      for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+        Array<Entry<T>> cell = this.cells.get(getCellKey(cellX, cellY));
+        if(cell == null) {
+          continue;
+        }
+
+        for(int i = 0; i < cell.size; i++) {
+          Entry<T> entry = cell.get(i);
+
+          if(entry.queryMark == this.queryMark) {
+            continue;
+          }
+
+          // distance between the center of the circle and the closest point of the bounds
+          Rectangle bounds = entry.bounds;
+          float dx = x - Math.max(bounds.x, Math.min(x, bounds.x + bounds.width));
+          float dy = y - Math.max(bounds.y, Math.min(y, bounds.y + bounds.height));
+
+          if(dx * dx + dy * dy <= radius2) {
+            entry.queryMark = this.queryMark;
+            result.add(entry.item);
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+}
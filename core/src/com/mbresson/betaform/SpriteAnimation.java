@@ -0,0 +1,122 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+
+/**
+ * Plays an animation whose frames are the regions of an atlas named after their index
+ * ("1", "2", ..., see the player and enemies atlases).
+ *
+ * The frames are looked up only once per atlas and shared by all the objects using it,
+ * so that changing frame doesn't search the atlas nor build a string anymore.
+ * Each object only keeps the time its animation started at, see AnimationClock.
+ */
+class SpriteAnimation {
+
+  private static class CachedAnimation {
+    int firstRegion, lastRegion;
+    float frameDuration;
+    Animation animation;
+  }
+
+  private static IdentityMap<TextureAtlas, Array<CachedAnimation>> cache = new IdentityMap<>();
+
+  private Animation animation;
+  private float startTime = 0f;
+  private int frameIndex = 0;
+
+  public SpriteAnimation(Animation animation) {
+    this.animation = animation;
+  }
+
+  /**
+   * @return the animation made of the regions firstRegion..lastRegion of the atlas,
+   * created on the first call and then shared
+   */
+  public static Animation getAnimation(TextureAtlas atlas, int firstRegion, int lastRegion, float frameDuration) {
+    Array<CachedAnimation> atlasAnimations = cache.get(atlas);
+    if(atlasAnimations == null) {
+      atlasAnimations = new Array<>(2);
+      cache.put(atlas, atlasAnimations);
+    }
+
+    for(CachedAnimation cached: atlasAnimations) {
+      if(
+        cached.firstRegion == firstRegion && cached.lastRegion == lastRegion &&
+        cached.frameDuration == frameDuration
+      ) {
+        return cached.animation;
+      }
+    }
+
+    Array<TextureRegion> frames = new Array<>(lastRegion - firstRegion + 1);
+    for(int region = firstRegion; region <= lastRegion; region++) {
+      frames.add(atlas.findRegion(Integer.toString(region)));
+    }
+
+    CachedAnimation cached = new CachedAnimation();
+    cached.firstRegion = firstRegion;
+    cached.lastRegion = lastRegion;
+    cached.frameDuration = frameDuration;
+    cached.animation = new Animation(frameDuration, frames, Animation.PlayMode.LOOP);
+
+    atlasAnimations.add(cached);
+
+    return cached.animation;
+  }
+
+  /**
+   * The atlases are disposed with the level, the animations built from them must be forgotten too.
+   */
+  public static void clearCache() {
+    cache.clear();
+  }
+
+  public TextureRegion getFirstFrame() {
+    return this.animation.getKeyFrames()[0];
+  }
+
+  /**
+   * Goes back to the first frame.
+   *
+   * @param time see AnimationClock.getTime
+   */
+  public void restart(Sprite sprite, float time) {
+    this.startTime = time;
+
+    if(this.frameIndex != 0) {
+      this.frameIndex = 0;
+      sprite.setRegion(this.getFirstFrame());
+    }
+  }
+
+  /**
+   * Changes the animation (e.g. to a faster one) while staying on the current frame.
+   */
+  public void setAnimation(Animation animation, float time) {
+    if(animation == this.animation) {
+      return;
+    }
+
+    this.startTime = time - this.frameIndex * animation.getFrameDuration();
+    this.animation = animation;
+  }
+
+  /**
+   * Changes the region of the sprite only if the frame has changed since the last update.
+   *
+   * @param time see AnimationClock.getTime
+   */
+  public void update(Sprite sprite, float time) {
+    int frameIndex = this.animation.getKeyFrameIndex(time - this.startTime);
+
+    if(frameIndex != this.frameIndex) {
+      this.frameIndex = frameIndex;
+      sprite.setRegion(this.animation.getKeyFrames()[frameIndex]);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Limits the number of physics steps run in one frame, both in steps and in time.
+ *
+ * Without a limit, a frame which takes too long accumulates more steps for the next one,
+ * which then takes even longer (spiral of death).
+ * When the budget is exceeded, the steps which can't be run are dropped:
+ * the game runs in slow motion until it catches up.
+ *
+ * The counters tell how often it happens, to know if a level is too heavy for a machine.
+ */
+public class StepBudget {
+
+  private final int maxSteps;
+  private final long maxNanoseconds;
+
+  private long frameStart;
+  private int frameSteps;
+
+  private long frames = 0;
+  private long framesOverBudget = 0;
+  private long droppedSteps = 0;
+  private int maxStepsInFrame = 0;
+
+  public StepBudget(int maxSteps, float maxMilliseconds) {
+    this.maxSteps = maxSteps;
+    this.maxNanoseconds = (long)(maxMilliseconds * 1000000L);
+  }
+
+  public void beginFrame() {
+    this.frameStart = TimeUtils.nanoTime();
+    this.frameSteps = 0;
+    this.frames++;
+  }
+
+  /**
+   * The first step of a frame is always allowed, so that the game never freezes.
+   */
+  public boolean canStep() {
+    if(this.frameSteps == 0) {
+      return true;
+    }
+
+    return
+      this.frameSteps < this.maxSteps &&
+      TimeUtils.nanoTime() - this.frameStart < this.maxNanoseconds;
+  }
+
+  public void stepDone() {
+    this.frameSteps++;
+  }
+
+  /**
+   * @param stepsDropped the number of steps which were due but not run during this frame
+   */
+  public void endFrame(int stepsDropped) {
+    if(stepsDropped > 0) {
+      this.framesOverBudget++;
+      this.droppedSteps += stepsDropped;
+    }
+
+    if(this.frameSteps > this.maxStepsInFrame) {
+      this.maxStepsInFrame = this.frameSteps;
+    }
+  }
+
+  public long getFrames() {
+    return this.frames;
+  }
+
+  public long getFramesOverBudget() {
+    return this.framesOverBudget;
+  }
+
+  public long getDroppedSteps() {
+    return this.droppedSteps;
+  }
+
+  /**
+   * @return the time which was not simulated because of the budget, in seconds
+   */
+  public float getDroppedTime() {
+    return this.droppedSteps * Configuration.Physics.FRAMERATE_STEP;
+  }
+
+  public int getMaxStepsInFrame() {
+    return this.maxStepsInFrame;
+  }
+
+  @Override
+  public String toString() {
+    return
+      this.framesOverBudget + "/" + this.frames + " frames over the step budget, " +
+      this.droppedSteps + " steps dropped (" + this.getDroppedTime() + "s), " +
+      "at most " + this.maxStepsInFrame + " steps in a frame";
+  }
+}
@@ -0,0 +1,105 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Decides at which physics steps the objects think (run their behavior, aim, shoot...).
+ *
+ * An object which ticks every n steps is given a phase between 0 and n - 1,
+ * the phases being handed out in turn so that the objects with the same interval
+ * don't all tick at the same step.
+ *
+ * The time spent in the ticks is summed by type of object, to know which ones are expensive.
+ */
+class UpdateScheduler {
+
+  private static class TypeStats {
+    private long ticks = 0;
+    private long nanoseconds = 0;
+  }
+
+  private long step = 0;
+
+  // for each interval, the phase to give to the next object
+  private IntIntMap nextPhases = new IntIntMap();
+
+  private IdentityMap<Class<?>, TypeStats> stats = new IdentityMap<>();
+
+  /**
+   * Must be called once per physics step, after the objects are updated.
+   */
+  public void advance() {
+    this.step++;
+  }
+
+  /**
+   * @param interval the number of steps between two ticks
+   * @return the phase of a new object
+   */
+  public int nextPhase(int interval) {
+    if(interval <= 1) {
+      return 0;
+    }
+
+    int phase = this.nextPhases.get(interval, 0);
+    this.nextPhases.put(interval, (phase + 1) % interval);
+
+    return phase;
+  }
+
+  public boolean isDue(int interval, int phase) {
+    return interval <= 1 || this.step % interval == phase % interval;
+  }
+
+  /**
+   * @return the start time of a tick, to give to {@link #endTick(Class, long)}
+   */
+  public long beginTick() {
+    return Configuration.AI.PROFILE_TICKS ? TimeUtils.nanoTime() : 0;
+  }
+
+  public void endTick(Class<?> type, long start) {
+    TypeStats typeStats = this.stats.get(type);
+    if(typeStats == null) {
+      typeStats = new TypeStats();
+      this.stats.put(type, typeStats);
+    }
+
+    typeStats.ticks++;
+
+    if(Configuration.AI.PROFILE_TICKS) {
+      typeStats.nanoseconds += TimeUtils.nanoTime() - start;
+    }
+  }
+
+  public long getTicks(Class<?> type) {
+    TypeStats typeStats = this.stats.get(type);
+    return typeStats == null ? 0 : typeStats.ticks;
+  }
+
+  /**
+   * @return the time spent in the ticks of the objects of this type, in milliseconds
+   */
+  public float getTickTime(Class<?> type) {
+    TypeStats typeStats = this.stats.get(type);
+    return typeStats == null ? 0f : typeStats.nanoseconds / 1000000f;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(this.step).append(" steps scheduled");
+
+    for(IdentityMap.Entry<Class<?>, TypeStats> entry: this.stats.entries()) {
+      builder
+        .append(", ")
+        .append(entry.key.getSimpleName()).append(": ")
+        .append(entry.value.ticks).append(" ticks in ")
+        .append(entry.value.nanoseconds / 1000000f).append("ms");
+    }
+
+    return builder.toString();
+  }
+}
@@ -0,0 +1,148 @@
+package com.mbresson.betaform;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Checks the paths of the NavPlanner on small synthetic levels, without running the game:
+ * climbing stairs and a wall, a closed door cutting the path, and a pit on the way to the goal.
+ *
+ * It is in the package of the game since the NavGraph is not visible out of it.
+ * Exits with an error status if a check fails.
+ *
+ * Usage: gradle headless:navScenario
+ */
+public class NavScenario {
+
+  private static int failures = 0;
+
+  public static void main(String[] arg) {
+    checkStairsAndDoor();
+    checkPit();
+
+    if(failures > 0) {
+      System.out.println("@" + failures + " navigation checks failed");
+      System.exit(1);
+    }
+
+    System.out.println("@All the navigation checks passed");
+  }
+
+  /*
+   * 24x8 cells: stairs up to a platform 3 cells high, a fall, then a wall of 1 cell, the goal being behind it.
+   */
+  private static void checkStairsAndDoor() {
+    Level level = Level.createBaseLevel(24, 8, "nav-stairs");
+
+    addTile(level, 6, 1, 1, 1);
+    addTile(level, 7, 1, 1, 2);
+    addTile(level, 8, 1, 3, 3);
+    addTile(level, 16, 1, 1, 1);
+
+    NavPlanner planner = createPlanner(level);
+    NavGraph graph = planner.getGraph();
+
+    NavGraph.Node start = getCell(graph, 1, 1);
+    NavGraph.Node goal = getCell(graph, 22, 1);
+
+    DefaultGraphPath<NavGraph.Node> path = findPath(planner, start, goal);
+    check("the path goes up the stairs and over the wall",
+      leadsTo(path, goal) && contains(path, 9, 4) && contains(path, 16, 2));
+
+    // the door stands on the wall and fills the column up to the ceiling
+    Rectangle door = new Rectangle(
+      16 * Configuration.Level.TILE_WIDTH, 2 * Configuration.Level.TILE_HEIGHT,
+      Configuration.Level.TILE_WIDTH, 6 * Configuration.Level.TILE_HEIGHT
+    );
+
+    planner.patch(door, true);
+    check("a closed door cuts the path", findPath(planner, start, goal) == null);
+
+    planner.patch(door, false);
+    path = findPath(planner, start, goal);
+    check("opening the door restores the path over the wall",
+      leadsTo(path, goal) && contains(path, 16, 2) && !contains(path, 16, 1));
+  }
+
+  /*
+   * 24x8 cells, 3 clusters wide: the start is on a high ground, followed by a bridge and a lower ground leading to the goal.
+   * Walking back from the lower ground, an enemy falls into a pit under the bridge and can't jump out of it.
+   * The pit holds the lowest cells of the second cluster.
+   */
+  private static void checkPit() {
+    Level level = Level.createBaseLevel(24, 8, "nav-pit");
+
+    addTile(level, 0, 1, 8, 4);
+    addTile(level, 8, 4, 2, 1);
+    addTile(level, 10, 1, 14, 2);
+
+    NavPlanner planner = createPlanner(level);
+    NavGraph graph = planner.getGraph();
+
+    NavGraph.Node start = getCell(graph, 2, 5);
+    NavGraph.Node goal = getCell(graph, 20, 3);
+
+    DefaultGraphPath<NavGraph.Node> path = findPath(planner, start, goal);
+    check("the path reaches the goal without entering the pit",
+      leadsTo(path, goal) && !contains(path, 8, 1) && !contains(path, 9, 1));
+
+    // an enemy asking for a path from each cell it reaches keeps reaching the goal
+    boolean reached = path != null;
+    for(int i = 0; reached && i < path.getCount(); i++) {
+      reached = leadsTo(findPath(planner, path.get(i), goal), goal);
+    }
+    check("the path from each cell of the path reaches the goal", reached);
+  }
+
+  private static void addTile(Level level, int x, int y, int width, int height) {
+    level.getTiles().add(new LevelTile(x * Configuration.Level.TILE_WIDTH, y * Configuration.Level.TILE_HEIGHT, width, height));
+  }
+
+  private static NavPlanner createPlanner(Level level) {
+    Vector2 spriteSize = new Vector2(Configuration.Level.TILE_WIDTH, Configuration.Level.TILE_HEIGHT);
+
+    for(LevelTile tile: level.getTiles()) {
+      tile.setSpriteSize(spriteSize);
+    }
+
+    return new NavPlanner(level);
+  }
+
+  private static NavGraph.Node getCell(NavGraph graph, int x, int y) {
+    return graph.getCell((x + 0.5f) * Configuration.Level.TILE_WIDTH, (y + 0.5f) * Configuration.Level.TILE_HEIGHT);
+  }
+
+  private static DefaultGraphPath<NavGraph.Node> findPath(NavPlanner planner, NavGraph.Node start, NavGraph.Node goal) {
+    // a search per frame at most is enough here
+    planner.beginFrame();
+
+    return planner.findPath(start, goal);
+  }
+
+  private static boolean leadsTo(DefaultGraphPath<NavGraph.Node> path, NavGraph.Node goal) {
+    return path != null && path.get(path.getCount() - 1) == goal;
+  }
+
+  private static boolean contains(DefaultGraphPath<NavGraph.Node> path, int x, int y) {
+    if(path == null) {
+      return false;
+    }
+
+    for(NavGraph.Node node: path) {
+      if(node.getX() == x && node.getY() == y) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static void check(String description, boolean passed) {
+    System.out.println("@" + (passed ? "Passed: " : "FAILED: ") + description);
+
+    if(!passed) {
+      failures++;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.mbresson.betaform.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * The headless backend doesn't provide any OpenGL implementation,
+ * but textures (atlases, fonts) are still created when a level is loaded.
+ *
+ * This class installs a GL20 which does nothing and returns default values,
+ * so that textures can be created without a GPU.
+ * Nothing can be drawn with it: shaders never compile, so SpriteBatch can't be used.
+ */
+class HeadlessGL implements InvocationHandler {
+
+  public static void install() {
+    if(Gdx.gl20 != null) {
+      return;
+    }
+
+    GL20 gl = (GL20) Proxy.newProxyInstance(
+      GL20.class.getClassLoader(),
+      new Class<?>[] { GL20.class },
+      new HeadlessGL()
+    );
+
+    Gdx.gl = gl;
+    Gdx.gl20 = gl;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    Class<?> type = method.getReturnType();
+
+    if(type == boolean.class) {
+      return false;
+    } else if(type == int.class) {
+      return 0;
+    } else if(type == float.class) {
+      return 0f;
+    } else if(type == String.class) {
+      return "";
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,56 @@
+package com.mbresson.betaform.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.mbresson.betaform.Configuration;
+
+/**
+ * Runs a level without any window or GPU, e.g. to benchmark the simulation on a server.
+ *
+ * Arguments: [level name] [simulated seconds] [--realtime] [--check-allocations]
+ * The level name is the name of a file of data/levels, without its extension.
+ * With --check-allocations, the player is moved by a script and the process fails
+ * if the game loop allocates anything once warmed up, see HeadlessSimulation.
+ *
+ * The check is only valid on a HotSpot JVM limited to the C1 compiler
+ * (-XX:+TieredCompilation -XX:TieredStopAtLevel=1, which gradle headless:run passes with --check-allocations).
+ * Before compiling a method, C2 creates all the string constants of its class which were never used
+ * (e.g. the ones of toString or of the exceptions), and they are counted as allocated by the game thread
+ * the first time each class is compiled, about 2 KB in 30 seconds.
+ */
+public class HeadlessLauncher {
+
+  private static final float DEFAULT_SECONDS = 60f;
+
+  public static void main (String[] arg) {
+    String levelName = Configuration.Level.FIRST_LEVEL_NAME;
+    float seconds = DEFAULT_SECONDS;
+    boolean realTime = false;
+    boolean checkAllocations = false;
+
+    int position = 0;
+    for(String argument: arg) {
+      if(argument.equals("--realtime")) {
+        realTime = true;
+      } else if(argument.equals("--check-allocations")) {
+        checkAllocations = true;
+      } else if(position == 0) {
+        levelName = argument;
+        position++;
+      } else if(position == 1) {
+        seconds = Float.parseFloat(argument);
+        position++;
+      }
+    }
+
+    HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+
+    /*
+     * In real time mode, the application loop calls the game once per physics step.
+     * Otherwise, the whole simulation is run at once inside create().
+     */
+    config.renderInterval = realTime && !checkAllocations ? Configuration.Physics.FRAMERATE_STEP : -1f;
+
+    new HeadlessApplication(new HeadlessSimulation(levelName, seconds, realTime && !checkAllocations, checkAllocations), config);
+  }
+}
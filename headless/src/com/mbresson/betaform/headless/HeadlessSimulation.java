@@ -0,0 +1,288 @@
+package com.mbresson.betaform.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.mbresson.betaform.Configuration;
+import com.mbresson.betaform.GameScreen;
+import com.mbresson.betaform.Level;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Loads a level in a GameScreen which doesn't draw anything
+ * and runs its physics and update loop for a given amount of simulated time.
+ * When the player dies, he is brought back to his initial position and the simulation goes on,
+ * so that the whole time is simulated: it only stops early if the player reaches the exit.
+ *
+ * When checking the allocations, the player is moved by a script (see isScriptedKeyDown):
+ * the script is first played for a warm-up (loading the classes, filling the pools and caches),
+ * then the bytes allocated by the thread during the given time are measured, and the process exits
+ * with an error if any were.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+
+  private static final float WARM_UP_SECONDS = 10f;
+
+  // the script is repeated every period
+  private static final long SCRIPT_PERIOD = (long)(4 * Configuration.Physics.STEPS_PER_SECOND);
+
+  private static final int[] SCRIPTED_KEYS = {
+    Configuration.Controls.KEY_MOVE_RIGHT,
+    Configuration.Controls.KEY_MOVE_LEFT,
+    Configuration.Controls.KEY_JUMP,
+    Configuration.Controls.KEY_SHOOT
+  };
+
+  private final String levelName;
+  private final float seconds;
+  private final boolean realTime;
+  private final boolean checkAllocations;
+
+  private GameScreen game;
+  private long maxSteps;
+  private long startTime;
+
+  // Gdx.app.exit only stops the application loop after one more call to render
+  private boolean finished = false;
+
+  // the number of times the player died, and the step of his first death
+  private long deaths = 0;
+  private long firstDeathStep = -1;
+
+  public HeadlessSimulation(String levelName, float seconds, boolean realTime) {
+    this(levelName, seconds, realTime, false);
+  }
+
+  public HeadlessSimulation(String levelName, float seconds, boolean realTime, boolean checkAllocations) {
+    this.levelName = levelName;
+    this.seconds = seconds;
+    this.realTime = realTime;
+    this.checkAllocations = checkAllocations;
+  }
+
+  /**
+   * Prepares the libGDX and Box2D state needed to load a level without a GPU.
+   * Must be called from the thread which will run the simulation.
+   */
+  public static GameScreen createGame(String levelName) {
+    Box2D.init();
+    HeadlessGL.install();
+
+    return new GameScreen(levelName);
+  }
+
+  @Override
+  public void create() {
+    this.game = createGame(this.levelName);
+
+    if(this.checkAllocations) {
+      this.checkAllocations();
+      return;
+    }
+
+    this.maxSteps = (long)(this.seconds * Configuration.Physics.STEPS_PER_SECOND);
+
+    System.out.println("@Simulating " + this.levelName + " for " + this.seconds + "s (" + this.maxSteps + " steps)");
+
+    this.startTime = System.nanoTime();
+
+    if(this.realTime) {
+      return;
+    }
+
+    // each step is a frame of its own here
+    while(this.game.getStepCount() < this.maxSteps) {
+      this.game.getLevel().getNavPlanner().beginFrame();
+      this.game.step();
+
+      if(!this.keepPlayerInLevel()) {
+        break;
+      }
+    }
+
+    this.finish();
+  }
+
+  @Override
+  public void render() {
+    if(!this.realTime || this.finished) {
+      return;
+    }
+
+    this.game.render(Gdx.graphics.getDeltaTime());
+
+    boolean inLevel = this.keepPlayerInLevel();
+
+    if(!inLevel || this.game.getStepCount() >= this.maxSteps) {
+      this.finish();
+    }
+  }
+
+  /**
+   * Brings the player back to life if he died during the last steps.
+   *
+   * @return false if the player reached the exit of the level, which ends the simulation
+   */
+  private boolean keepPlayerInLevel() {
+    if(!this.game.isFinished()) {
+      return true;
+    }
+
+    if(!this.game.getPlayer().isDead()) {
+      return false;
+    }
+
+    if(this.deaths == 0) {
+      this.firstDeathStep = this.game.getStepCount();
+    }
+
+    this.deaths++;
+    this.game.respawnPlayer();
+
+    return true;
+  }
+
+  private void checkAllocations() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+      System.err.println("The allocations of a thread can't be measured on this JVM");
+      System.exit(2);
+    }
+
+    // see HeadlessLauncher
+    if(!ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-XX:TieredStopAtLevel=1")) {
+      System.err.println("The JVM isn't limited to C1 (-XX:TieredStopAtLevel=1), the compilations may be counted as allocations");
+    }
+
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    long threadId = Thread.currentThread().getId();
+
+    long warmUpSteps = (long)(WARM_UP_SECONDS * Configuration.Physics.STEPS_PER_SECOND);
+    long measuredSteps = (long)(this.seconds * Configuration.Physics.STEPS_PER_SECOND);
+
+    System.out.println("@Checking the allocations of " + this.levelName + " for " + this.seconds + "s (" + measuredSteps + " steps)");
+
+    this.runScript(0, warmUpSteps);
+
+    // what measuring itself allocates, if anything
+    long calibration = threadBean.getThreadAllocatedBytes(threadId);
+    calibration = threadBean.getThreadAllocatedBytes(threadId) - calibration;
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    long steps = this.runScript(warmUpSteps, warmUpSteps + measuredSteps);
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - calibration;
+
+    System.out.println("@" + allocated + " bytes allocated in " + steps + " steps");
+
+    if(this.game.isFinished()) {
+      System.out.println("@The player reached the exit of the level before the end of the check");
+    }
+
+    this.printStatistics();
+    this.game.dispose();
+
+    if(allocated > 0) {
+      System.err.println("The game loop allocated " + allocated + " bytes once warmed up");
+      System.exit(1);
+    }
+
+    Gdx.app.exit();
+  }
+
+  /**
+   * Plays the script from the first step (included) to the last one (excluded), or until the player reaches the exit.
+   *
+   * @return the number of steps run
+   */
+  private long runScript(long firstStep, long lastStep) {
+    long step = firstStep;
+
+    while(step < lastStep) {
+      for(int key: SCRIPTED_KEYS) {
+        boolean down = isScriptedKeyDown(key, step);
+
+        if(down && (step == 0 || !isScriptedKeyDown(key, step - 1))) {
+          this.game.keyDown(key);
+        } else if(!down && step > 0 && isScriptedKeyDown(key, step - 1)) {
+          this.game.keyUp(key);
+        }
+      }
+
+      this.game.getLevel().getNavPlanner().beginFrame();
+      this.game.step();
+      step++;
+
+      if(!this.keepPlayerInLevel()) {
+        break;
+      }
+    }
+
+    return step - firstStep;
+  }
+
+  /**
+   * The script walks right then left, jumps every second and shoots four times a second.
+   */
+  private static boolean isScriptedKeyDown(int key, long step) {
+    long time = step % SCRIPT_PERIOD;
+    long second = (long) Configuration.Physics.STEPS_PER_SECOND;
+
+    switch(key) {
+      case Configuration.Controls.KEY_MOVE_RIGHT:
+        return time < SCRIPT_PERIOD / 2;
+
+      case Configuration.Controls.KEY_MOVE_LEFT:
+        return time >= SCRIPT_PERIOD / 2;
+
+      case Configuration.Controls.KEY_JUMP:
+        return time % second < second / 2;
+
+      case Configuration.Controls.KEY_SHOOT:
+        return time % (second / 4) == 0;
+    }
+
+    return false;
+  }
+
+  private void finish() {
+    this.finished = true;
+
+    double elapsed = (System.nanoTime() - this.startTime) / 1000000000.0;
+    long steps = this.game.getStepCount();
+
+    System.out.println("@Simulated " + (steps / Configuration.Physics.STEPS_PER_SECOND) + "s in " + elapsed + "s");
+    System.out.println("@" + steps + " steps, " + (long)(steps / elapsed) + " steps per second");
+
+    if(this.game.isFinished()) {
+      System.out.println("@The player reached the exit of the level before the end of the simulation");
+    }
+
+    this.printStatistics();
+    this.game.dispose();
+    Gdx.app.exit();
+  }
+
+  /**
+   * Prints what the pools, queues and caches of the game went through during the simulation.
+   */
+  private void printStatistics() {
+    if(this.deaths > 0) {
+      System.out.println("@The player died " + this.deaths + " times, first at step " + this.firstDeathStep + ", and was brought back each time");
+    }
+
+    Level level = this.game.getLevel();
+    System.out.println("@" + level.getTiles().size + " tiles merged into " + level.getCollisionRectangles() + " collision rectangles");
+
+    if(this.game.getStepBudget().getFrames() > 0) {
+      System.out.println("@" + this.game.getStepBudget());
+    }
+
+    System.out.println("@" + this.game.getBulletManager().getPool());
+    System.out.println("@" + this.game.getDestructionQueue());
+    System.out.println("@" + this.game.getContactHandler());
+    System.out.println("@" + this.game.getUpdateScheduler());
+    System.out.println("@" + level.getNavPlanner());
+  }
+}
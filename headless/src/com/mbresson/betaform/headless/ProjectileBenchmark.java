@@ -0,0 +1,246 @@
+package com.mbresson.betaform.headless;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.mbresson.betaform.Configuration;
+import com.mbresson.betaform.ProjectileStore;
+
+import java.util.Random;
+
+/**
+ * Compares the bookkeeping of the bullets done at each physics step and frame
+ * (saving the previous positions, moving, finding the visible ones)
+ * with one object per bullet, as BulletManager used to store them, and with the ProjectileStore.
+ *
+ * Box2D is not involved, only the loops over the bullets are measured.
+ *
+ * Arguments: [number of bullets...], 100 500 2000 by default.
+ * Usage: gradle headless:benchmarkProjectiles -Pargs="100 1000"
+ */
+public class ProjectileBenchmark {
+
+  private static final int WARMUP_ROUNDS = 2000;
+  private static final int MEASURED_ROUNDS = 5000;
+
+  private static final float WIDTH = 16, HEIGHT = 8;
+  private static final float SPEED = 10f;
+
+  /**
+   * A bullet as BulletManager used to store it.
+   */
+  private static class ObjectBullet {
+    Direction direction;
+    Type type;
+    int strength;
+    Vector2 position = new Vector2();
+    Vector2 previousPosition = new Vector2();
+    Vector2 velocity = new Vector2();
+  }
+
+  private static enum Direction { LEFT, RIGHT }
+  private static enum Type { PLAYER_BULLET, PLAYER_SUPER_BULLET, ENEMY_BULLET }
+
+  public static void main(String[] arg) {
+    int[] counts = { 100, 500, 2000 };
+
+    if(arg.length > 0) {
+      counts = new int[arg.length];
+      for(int i = 0; i < arg.length; i++) {
+        counts[i] = Integer.parseInt(arg[i]);
+      }
+    }
+
+    // about the size of the screen, in pixels, so that some bullets are out of it
+    Rectangle visibleArea = new Rectangle(0, 0, Configuration.Video.WINDOW_WIDTH, Configuration.Video.WINDOW_HEIGHT);
+
+    for(int count: counts) {
+      double objects = benchmarkObjects(count, visibleArea);
+      double store = benchmarkStore(count, visibleArea);
+
+      System.out.println(String.format(
+        "%5d bullets: objects %8.0f bullets/ms, store %8.0f bullets/ms (x%.2f)",
+        count, objects, store, store / objects
+      ));
+    }
+  }
+
+  private static double benchmarkObjects(int count, Rectangle visibleArea) {
+    Random random = new Random(42);
+
+    Array<ObjectBullet> bullets = new Array<ObjectBullet>(false, count);
+    Array<Object> garbage = new Array<Object>();
+
+    for(int i = 0; i < count; i++) {
+      ObjectBullet bullet = new ObjectBullet();
+      bullet.type = Type.values()[i % Type.values().length];
+      bullet.direction = random.nextBoolean() ? Direction.LEFT : Direction.RIGHT;
+      bullet.strength = 10;
+      placeRandomly(random, bullet.position, visibleArea);
+      bullet.velocity.set(bullet.direction == Direction.LEFT ? -SPEED : SPEED, 0);
+      bullets.add(bullet);
+
+      // the bullets were created during the game, between other objects
+      garbage.add(new float[random.nextInt(64) + 1]);
+    }
+
+    IntArray visibleIndices = new IntArray(count);
+    FloatArray visiblePositions = new FloatArray(count * 2);
+
+    long checksum = 0;
+    for(int round = 0; round < WARMUP_ROUNDS; round++) {
+      checksum += stepObjects(bullets, visibleArea, visibleIndices, visiblePositions);
+    }
+
+    long start = System.nanoTime();
+    for(int round = 0; round < MEASURED_ROUNDS; round++) {
+      checksum += stepObjects(bullets, visibleArea, visibleIndices, visiblePositions);
+    }
+    long elapsed = System.nanoTime() - start;
+
+    preventElimination(checksum + garbage.size);
+
+    return (double) count * MEASURED_ROUNDS / (elapsed / 1e6);
+  }
+
+  private static int stepObjects(Array<ObjectBullet> bullets, Rectangle visibleArea, IntArray visibleIndices, FloatArray visiblePositions) {
+    float deltaTime = Configuration.Physics.FRAMERATE_STEP;
+    float alpha = 0.5f;
+
+    for(ObjectBullet bullet: bullets) {
+      bullet.previousPosition.set(bullet.position);
+    }
+
+    for(ObjectBullet bullet: bullets) {
+      bullet.position.add(bullet.velocity.x * deltaTime, bullet.velocity.y * deltaTime);
+      wrap(bullet.position, visibleArea);
+    }
+
+    visibleIndices.clear();
+    visiblePositions.clear();
+
+    for(int i = 0; i < bullets.size; i++) {
+      ObjectBullet bullet = bullets.get(i);
+
+      float physicsX = bullet.previousPosition.x + (bullet.position.x - bullet.previousPosition.x) * alpha;
+      float physicsY = bullet.previousPosition.y + (bullet.position.y - bullet.previousPosition.y) * alpha;
+
+      float x = physicsX * Configuration.Physics.WORLD_UNIT_TO_PIXELS - WIDTH / 2;
+      float y = physicsY * Configuration.Physics.WORLD_UNIT_TO_PIXELS - HEIGHT / 2;
+
+      if(
+        x + WIDTH < visibleArea.x || x > visibleArea.x + visibleArea.width ||
+        y + HEIGHT < visibleArea.y || y > visibleArea.y + visibleArea.height
+      ) {
+        continue;
+      }
+
+      visibleIndices.add(i);
+      visiblePositions.add(x);
+      visiblePositions.add(y);
+    }
+
+    return visibleIndices.size;
+  }
+
+  private static double benchmarkStore(int count, Rectangle visibleArea) {
+    Random random = new Random(42);
+    Vector2 position = new Vector2();
+
+    ProjectileStore store = new ProjectileStore(count);
+
+    for(int i = 0; i < count; i++) {
+      int slot = store.obtain();
+      boolean left = random.nextBoolean();
+
+      placeRandomly(random, position, visibleArea);
+
+      store.type[slot] = i % Type.values().length;
+      store.direction[slot] = left ? Direction.LEFT.ordinal() : Direction.RIGHT.ordinal();
+      store.strength[slot] = 10;
+      store.x[slot] = position.x;
+      store.y[slot] = position.y;
+      store.velocityX[slot] = left ? -SPEED : SPEED;
+      store.velocityY[slot] = 0;
+    }
+
+    IntArray visibleSlots = new IntArray(count);
+    FloatArray visiblePositions = new FloatArray(count * 2);
+
+    long checksum = 0;
+    for(int round = 0; round < WARMUP_ROUNDS; round++) {
+      checksum += stepStore(store, visibleArea, visibleSlots, visiblePositions);
+    }
+
+    long start = System.nanoTime();
+    for(int round = 0; round < MEASURED_ROUNDS; round++) {
+      checksum += stepStore(store, visibleArea, visibleSlots, visiblePositions);
+    }
+    long elapsed = System.nanoTime() - start;
+
+    preventElimination(checksum);
+
+    return (double) count * MEASURED_ROUNDS / (elapsed / 1e6);
+  }
+
+  private static int stepStore(ProjectileStore store, Rectangle visibleArea, IntArray visibleSlots, FloatArray visiblePositions) {
+    float deltaTime = Configuration.Physics.FRAMERATE_STEP;
+
+    store.savePreviousPositions();
+
+    // what BulletManager.moveBullets does when the rays hit nothing
+    float width = visibleArea.width / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+    float[] x = store.x, y = store.y;
+    float[] velocityX = store.velocityX, velocityY = store.velocityY;
+    boolean[] alive = store.alive;
+
+    for(int slot = 0; slot < store.getCapacity(); slot++) {
+      if(alive[slot]) {
+        x[slot] += velocityX[slot] * deltaTime;
+        y[slot] += velocityY[slot] * deltaTime;
+
+        if(x[slot] < 0) {
+          x[slot] += width;
+        } else if(x[slot] > width) {
+          x[slot] -= width;
+        }
+      }
+    }
+
+    visibleSlots.clear();
+    visiblePositions.clear();
+
+    return store.cull(visibleArea, 0.5f, WIDTH, HEIGHT, visibleSlots, visiblePositions);
+  }
+
+  /**
+   * Spreads the bullets over twice the visible area, in world units.
+   */
+  private static void placeRandomly(Random random, Vector2 position, Rectangle visibleArea) {
+    position.set(
+      random.nextFloat() * visibleArea.width / Configuration.Physics.WORLD_UNIT_TO_PIXELS,
+      random.nextFloat() * visibleArea.height * 2 / Configuration.Physics.WORLD_UNIT_TO_PIXELS
+    );
+  }
+
+  /**
+   * Keeps the bullets flying horizontally inside the area, so that the work is the same at each round.
+   */
+  private static void wrap(Vector2 position, Rectangle visibleArea) {
+    float width = visibleArea.width / Configuration.Physics.WORLD_UNIT_TO_PIXELS;
+
+    if(position.x < 0) {
+      position.x += width;
+    } else if(position.x > width) {
+      position.x -= width;
+    }
+  }
+
+  private static volatile long sink;
+
+  private static void preventElimination(long value) {
+    sink += value;
+  }
+}